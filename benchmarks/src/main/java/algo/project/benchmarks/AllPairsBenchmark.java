@@ -0,0 +1,46 @@
+package algo.project.benchmarks;
+
+import algo.project.CompactGraph;
+import algo.project.DistanceMatrix;
+import algo.project.JohnsonEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// All-pairs distances with Johnson's algorithm. The table has V^2 cells, so the sizes stop where
+// it still fits in memory (3000 vertices is 72 MB, 10000 would be 800 MB).
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllPairsBenchmark {
+
+    @Param({"1000", "3000"})
+    public int vertices;
+
+    private JohnsonEngine johnson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CompactGraph graph = BenchmarkData.geometricGraph(BenchmarkData.randomPoints(vertices, BenchmarkData.SEED), 6);
+        johnson = new JohnsonEngine(graph);
+    }
+
+    @Benchmark
+    public DistanceMatrix johnsonAllPairs() {
+        return johnson.allPairs();
+    }
+}
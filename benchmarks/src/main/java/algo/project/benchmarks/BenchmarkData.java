@@ -0,0 +1,102 @@
+package algo.project.benchmarks;
+
+import algo.project.CompactGraph;
+import algo.project.GeoGraphBuilder;
+import algo.project.GeoPointSet;
+import algo.project.Graph;
+import algo.project.Vertex;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Seeded inputs shared by the benchmarks, so every run measures the same graphs and files
+final class BenchmarkData {
+
+    static final long SEED = 20240601L;
+
+    private BenchmarkData() {
+    }
+
+    // Method to scatter points uniformly over Manhattan and the surrounding boroughs
+    static GeoPointSet randomPoints(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GeoPointSet points = new GeoPointSet(count);
+        for (int i = 0; i < count; i++) {
+            points.add(-74.05 + random.nextDouble() * 0.3, 40.60 + random.nextDouble() * 0.3);
+        }
+        return points;
+    }
+
+    // Method to build a road-like graph: every point connected to its k nearest neighbours
+    static CompactGraph geometricGraph(GeoPointSet points, int k) {
+        return new GeoGraphBuilder(points, GeoGraphBuilder.tripVertices(points)).buildKNearest(k);
+    }
+
+    // Random arcs with the given average out-degree, as three parallel arrays: from, to, weight
+    static int[][] randomArcs(int vertexCount, int degree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int arcCount = vertexCount * degree;
+        int[][] arcs = new int[3][arcCount];
+        for (int i = 0; i < arcCount; i++) {
+            arcs[0][i] = i / degree;
+            arcs[1][i] = random.nextInt(vertexCount);
+            arcs[2][i] = 80 + random.nextInt(21);
+        }
+        return arcs;
+    }
+
+    static Vertex[] pickupVertices(int count) {
+        Vertex[] vertices = new Vertex[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new Vertex("Pickup" + (i + 1), "Pickup" + (i + 1), "Pickup");
+        }
+        return vertices;
+    }
+
+    // Method to write a taxi trip CSV in the column layout of trimmed_file.csv
+    static Path writeTaxiCsv(int trips, long seed) throws IOException {
+        Path file = Files.createTempFile("trips", ".csv");
+        file.toFile().deleteOnExit();
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("VendorID,tpep_pickup_datetime,tpep_dropoff_datetime,passenger_count,trip_distance,"
+                    + "pickup_longitude,pickup_latitude,RatecodeID,store_and_fwd_flag,dropoff_longitude,dropoff_latitude,"
+                    + "payment_type,fare_amount,extra,mta_tax,tip_amount,tolls_amount,improvement_surcharge,total_amount\n");
+            for (int i = 0; i < trips; i++) {
+                out.write(String.format(Locale.ROOT,
+                        "2,2016-01-01 00:00:00,2016-01-01 00:12:00,1,2.5,%.8f,%.8f,1,N,%.8f,%.8f,1,9.0,0.5,0.5,0.0,0.0,0.3,10.3%n",
+                        -74.05 + random.nextDouble() * 0.3, 40.60 + random.nextDouble() * 0.3,
+                        -74.05 + random.nextDouble() * 0.3, 40.60 + random.nextDouble() * 0.3));
+            }
+        }
+        return file;
+    }
+
+    // Method to write a negative-edge CSV in the layout of negative_file.csv between the given pickups
+    static Path writeNegativeCsv(int vertexCount, int edgeCount, long seed) throws IOException {
+        Path file = Files.createTempFile("negative", ".csv");
+        file.toFile().deleteOnExit();
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("Pickup,Dropoff,Weight\n");
+            for (int i = 0; i < edgeCount; i++) {
+                out.write("Pickup" + (random.nextInt(vertexCount) + 1) + ",Pickup" + (random.nextInt(vertexCount) + 1)
+                        + "," + (1 + random.nextInt(10)) + "\n");
+            }
+        }
+        return file;
+    }
+
+    // Method to build the graph whose vertices the negative CSV refers to
+    static Graph pickupGraph(int vertexCount) {
+        Graph graph = new Graph();
+        for (Vertex vertex : pickupVertices(vertexCount)) {
+            graph.addVertex(vertex);
+        }
+        return graph;
+    }
+}
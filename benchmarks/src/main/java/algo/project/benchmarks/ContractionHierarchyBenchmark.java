@@ -0,0 +1,65 @@
+package algo.project.benchmarks;
+
+import algo.project.CompactGraph;
+import algo.project.ContractionHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Contraction hierarchy preprocessing and queries; preprocessing is single-shot because a build
+// of the larger graphs takes minutes
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContractionHierarchyBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int vertices;
+
+    private CompactGraph graph;
+    private ContractionHierarchy hierarchy;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchmarkData.geometricGraph(BenchmarkData.randomPoints(vertices, BenchmarkData.SEED), 6);
+        hierarchy = ContractionHierarchy.build(graph);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED + 3);
+        sources = random.ints(PAIRS, 0, vertices).toArray();
+        targets = random.ints(PAIRS, 0, vertices).toArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ContractionHierarchy build() {
+        return ContractionHierarchy.build(graph);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public long query() {
+        next = (next + 1) & (PAIRS - 1);
+        return hierarchy.distance(sources[next], targets[next]);
+    }
+}
@@ -0,0 +1,115 @@
+package algo.project.benchmarks;
+
+import algo.project.CompactGraph;
+import algo.project.Edge;
+import algo.project.Graph;
+import algo.project.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Graph construction and the adjacency scans that the engines replaced
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBuildBenchmark {
+
+    private static final int DEGREE = 4;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int vertices;
+
+    private Vertex[] vertexArray;
+    private int[][] arcs;
+    private Graph graph;
+    private CompactGraph compactGraph;
+    private int[] lookupFrom;
+    private int[] lookupTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vertexArray = BenchmarkData.pickupVertices(vertices);
+        arcs = BenchmarkData.randomArcs(vertices, DEGREE, BenchmarkData.SEED);
+        graph = buildGraph();
+        compactGraph = CompactGraph.fromGraph(graph);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED + 1);
+        lookupFrom = new int[LOOKUPS];
+        lookupTo = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupFrom[i] = random.nextInt(vertices);
+            lookupTo[i] = random.nextInt(vertices);
+        }
+    }
+
+    @Benchmark
+    public Graph buildGraph() {
+        Graph result = new Graph();
+        for (int i = 0; i < arcs[0].length; i++) {
+            result.addEdge(vertexArray[arcs[0][i]], vertexArray[arcs[1][i]], arcs[2][i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CompactGraph buildCompactGraph() {
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertexArray);
+        for (int i = 0; i < arcs[0].length; i++) {
+            builder.addEdge(arcs[0][i], arcs[1][i], arcs[2][i]);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public CompactGraph freezeGraph() {
+        return CompactGraph.fromGraph(graph);
+    }
+
+    // Sum of all weights through Graph.getEdges
+    @Benchmark
+    public long getEdgesScan() {
+        long sum = 0;
+        for (Vertex vertex : graph.getVertices()) {
+            for (Edge edge : graph.getEdges(vertex)) {
+                sum += edge.getWeight();
+            }
+        }
+        return sum;
+    }
+
+    // The same sum over the CSR arrays
+    @Benchmark
+    public long compactScan() {
+        long sum = 0;
+        for (int v = 0; v < compactGraph.vertexCount(); v++) {
+            for (int e = compactGraph.firstEdge(v), end = compactGraph.endEdge(v); e < end; e++) {
+                sum += compactGraph.weight(e);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void checkEdgeExistence(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(graph.checkEdgeExistence(vertexArray[lookupFrom[i]], vertexArray[lookupTo[i]]));
+        }
+    }
+}
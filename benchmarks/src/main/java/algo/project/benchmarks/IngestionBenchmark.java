@@ -0,0 +1,84 @@
+package algo.project.benchmarks;
+
+import algo.project.CompleteGraphView;
+import algo.project.GeoPointSet;
+import algo.project.Graph;
+import algo.project.NegativeGraph;
+import algo.project.PositiveGraph;
+import algo.project.TaxiTripReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// CSV ingestion: the trip reader and both graph loaders
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionBenchmark {
+
+    // Trip files with vertices / 2 trips, since every trip adds a pickup and a dropoff
+    @State(Scope.Benchmark)
+    public static class TripFile {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int vertices;
+
+        public Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            file = BenchmarkData.writeTaxiCsv(vertices / 2, BenchmarkData.SEED);
+        }
+    }
+
+    // Negative-edge files; the loader materialises V^2 arcs, so the sizes stop well below the others
+    @State(Scope.Benchmark)
+    public static class NegativeFile {
+        @Param({"100", "1000", "3000"})
+        public int vertices;
+
+        public Path file;
+        public Graph positiveGraph;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            file = BenchmarkData.writeNegativeCsv(vertices, vertices * 3, BenchmarkData.SEED);
+            positiveGraph = BenchmarkData.pickupGraph(vertices);
+        }
+    }
+
+    @Benchmark
+    public GeoPointSet readTripPoints(TripFile state) throws IOException {
+        return new TaxiTripReader().readPoints(state.file.toString());
+    }
+
+    // The grid loader reads at most 49 trips, so this measures its fixed startup cost
+    @Benchmark
+    public Graph generatePositiveGraphFromCSV(TripFile state) {
+        return new PositiveGraph().generatePositiveGraphFromCSV(state.file.toString());
+    }
+
+    @Benchmark
+    public Graph createNegativeGraphFromCSV(NegativeFile state) {
+        return NegativeGraph.createNegativeGraphFromCSV(state.file.toString(), state.positiveGraph);
+    }
+
+    @Benchmark
+    public CompleteGraphView createImplicitNegativeGraphFromCSV(NegativeFile state) {
+        return NegativeGraph.createImplicitNegativeGraphFromCSV(state.file.toString(), state.positiveGraph);
+    }
+}
@@ -0,0 +1,141 @@
+package algo.project.benchmarks;
+
+import algo.project.AStarEngine;
+import algo.project.BidirectionalDijkstraEngine;
+import algo.project.CompactGraph;
+import algo.project.DeltaSteppingEngine;
+import algo.project.DijkstraEngine;
+import algo.project.DistanceMatrix;
+import algo.project.GeoPointSet;
+import algo.project.LandmarkIndex;
+import algo.project.ManyToManyEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Single-source, point-to-point and many-to-many queries on a k-nearest-neighbour geometric graph.
+// Point-to-point benchmarks cycle through a fixed list of random pairs.
+// Delta-stepping runs once per thread count of DeltaSteppingState, while singleSourceDijkstra is
+// its sequential baseline on the same graph and sources, so one run gives the speedup curve.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    private static final int PAIRS = 1024;
+    private static final int MATRIX_SIDE = 100;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int vertices;
+
+    private CompactGraph graph;
+    private DijkstraEngine dijkstra;
+    private BidirectionalDijkstraEngine bidirectional;
+    private AStarEngine haversine;
+    private AStarEngine landmarks;
+    private ManyToManyEngine manyToMany;
+    private int[] sources;
+    private int[] targets;
+    private long[] distances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GeoPointSet points = BenchmarkData.randomPoints(vertices, BenchmarkData.SEED);
+        graph = BenchmarkData.geometricGraph(points, 6);
+        dijkstra = new DijkstraEngine(graph);
+        bidirectional = new BidirectionalDijkstraEngine(graph);
+        haversine = AStarEngine.haversine(graph, points, 1.0);
+        landmarks = AStarEngine.landmarks(new LandmarkIndex(graph, 8));
+        manyToMany = new ManyToManyEngine(graph);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED + 2);
+        sources = random.ints(PAIRS, 0, vertices).toArray();
+        targets = random.ints(PAIRS, 0, vertices).toArray();
+        distances = new long[vertices];
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long[] singleSourceDijkstra() {
+        dijkstra.distancesFrom(sources[nextPair()], distances);
+        return distances;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long[] singleSourceDeltaStepping(DeltaSteppingState state) {
+        return state.engine.distancesFrom(sources[nextPair()]);
+    }
+
+    @Benchmark
+    public long pointToPointDijkstra() {
+        int i = nextPair();
+        return dijkstra.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public long pointToPointBidirectional() {
+        int i = nextPair();
+        return bidirectional.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public long pointToPointAStar() {
+        int i = nextPair();
+        return haversine.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public long pointToPointLandmarks() {
+        int i = nextPair();
+        return landmarks.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DistanceMatrix manyToMany() {
+        return manyToMany.matrix(Arrays.copyOf(sources, MATRIX_SIDE), Arrays.copyOf(targets, MATRIX_SIDE));
+    }
+
+    // Delta-stepping engine with a pool of the given size, built on the graph of the benchmark
+    @State(Scope.Benchmark)
+    public static class DeltaSteppingState {
+
+        @Param({"1", "2", "4", "8", "16", "32"})
+        public int threads;
+
+        private DeltaSteppingEngine engine;
+
+        @Setup(Level.Trial)
+        public void setUp(QueryBenchmark benchmark) {
+            engine = new DeltaSteppingEngine(benchmark.graph, DeltaSteppingEngine.defaultDelta(benchmark.graph), threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            engine.close();
+        }
+    }
+}
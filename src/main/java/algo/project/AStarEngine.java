@@ -0,0 +1,110 @@
+package algo.project;
+
+// Goal-directed point-to-point search (A*) for graphs with non-negative weights.
+// The heap is ordered by distance plus a lower bound on the remaining distance to the target, so
+// vertices that lead away from the target are rarely settled. Two bounds are available:
+// the haversine distance between vertex coordinates, and the landmark (ALT) bounds of a LandmarkIndex.
+public class AStarEngine implements PointToPointEngine {
+
+    // Lower bound on the distance from a vertex to the target; it must never overestimate
+    public interface Heuristic {
+        long estimate(int vertex, int target);
+    }
+
+    private final CompactGraph graph;
+    private final Heuristic heuristic;
+    private final ThreadLocal<SearchState> states;
+    private final EngineMetrics metrics = new EngineMetrics("AStar");
+
+    // Constructor with any admissible lower bound
+    public AStarEngine(CompactGraph graph, Heuristic heuristic) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("A* requires non-negative weights, found " + graph.minWeight());
+        }
+        this.graph = graph;
+        this.heuristic = heuristic;
+        int vertexCount = graph.vertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(vertexCount));
+    }
+
+    // Method to create an engine bounded by the haversine distance between the vertex coordinates.
+    // weightPerMeter converts meters to weight units; it is 1 for graphs from GeoGraphBuilder.
+    public static AStarEngine haversine(CompactGraph graph, GeoPointSet points, double weightPerMeter) {
+        if (points.size() != graph.vertexCount()) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + graph.vertexCount() + " vertices");
+        }
+        // Shrink the bound slightly so floating-point rounding can never make it overestimate
+        double scale = weightPerMeter * (1 - 1e-9);
+        return new AStarEngine(graph, (vertex, target) -> (long) (points.haversineMeters(vertex, target) * scale));
+    }
+
+    // Method to create an engine bounded by the landmark distances of a preprocessed index
+    public static AStarEngine landmarks(LandmarkIndex index) {
+        return new AStarEngine(index.getGraph(), index::lowerBound);
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public long distance(int source, int target) {
+        return search(source, target).distanceOf(target);
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        SearchState state = search(source, target);
+        return state.isReached(target) ? state.extractPath(target) : null;
+    }
+
+    @Override
+    public int lastSettledCount() {
+        return states.get().settled;
+    }
+
+    @Override
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Method to run the search until the target is settled
+    private SearchState search(int source, int target) {
+        QueryStats stats = metrics.begin();
+        SearchState state = states.get();
+        state.reset();
+        IndexedMinHeap heap = state.heap;
+        state.reach(source, 0, -1);
+        heap.push(source, heuristic.estimate(source, target));
+
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            state.settled++;
+            if (v == target) {
+                break;
+            }
+            long d = state.dist[v];
+            int first = graph.firstEdge(v);
+            int end = graph.endEdge(v);
+            state.relaxed += end - first;
+            for (int e = first; e < end; e++) {
+                int w = graph.target(e);
+                long candidate = d + graph.weight(e);
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    heap.push(w, candidate + heuristic.estimate(w, target));
+                } else if (candidate < state.dist[w]) {
+                    // With a consistent bound w is still queued; otherwise it is reopened
+                    long key = candidate + (heap.contains(w) ? heap.keyOf(w) - state.dist[w] : heuristic.estimate(w, target));
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    heap.pushOrDecrease(w, key);
+                }
+            }
+        }
+        if (stats != null) {
+            metrics.end(stats, source, target, state.distanceOf(target), state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,30 @@
+package algo.project;
+
+// Read-only CSR view of a graph that the search engines run on.
+// Vertices are dense int handles 0..vertexCount-1 and the outgoing arcs of vertex v are the
+// positions firstEdge(v)..endEdge(v)-1. CompactGraph keeps the arrays on the heap, while
+// MappedGraph reads them straight from a memory-mapped snapshot file.
+public interface AdjacencyView {
+
+    int vertexCount();
+
+    int edgeCount();
+
+    // Position of the first outgoing arc of the vertex
+    int firstEdge(int vertex);
+
+    // Position just past the last outgoing arc of the vertex
+    int endEdge(int vertex);
+
+    int target(int edge);
+
+    int weight(int edge);
+
+    // Method to get the smallest arc weight, or 0 if the graph has no arcs
+    int minWeight();
+
+    // Method to get the int handle of a vertex, or -1 if the vertex is not in the graph
+    int indexOf(Vertex vertex);
+
+    Vertex vertexAt(int index);
+}
@@ -0,0 +1,414 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Single-source shortest paths for graphs with negative weights, such as the ones built by
+// NegativeGraph.createNegativeGraphFromCSV.
+// Vertices are relaxed from a FIFO work queue (SPFA), so the search stops as soon as nothing changes.
+// Negative cycles are found with Tarjan's subtree disassembly: when a vertex improves, its subtree in
+// the shortest-path tree is taken apart, and finding the arc's tail inside that subtree proves a cycle.
+// This replaces the extra V-th pass of the textbook algorithm.
+// On a CompleteGraphView the implicit arcs are never enumerated: each round relaxes the explicit
+// arcs, and for the implicit ones every vertex takes the closest vertex, in a list sorted by
+// distance, that has no explicit arc into it. A round costs O(V log V + E) instead of O(V^2).
+public class BellmanFordEngine {
+
+    private final CompactGraph graph;
+    private final CompleteGraphView complete; // null unless the graph has implicit arcs
+
+    // Constructor to freeze the graph into compact form for querying
+    public BellmanFordEngine(Graph graph) {
+        this(CompactGraph.fromGraph(graph));
+    }
+
+    // Constructor to query an already frozen graph
+    public BellmanFordEngine(CompactGraph graph) {
+        this.graph = graph;
+        this.complete = null;
+    }
+
+    // Constructor for a complete graph whose default-weight arcs are implicit
+    public BellmanFordEngine(CompleteGraphView complete) {
+        this.graph = complete.getOverrides();
+        this.complete = complete;
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    // Method to compute distances from a vertex, or the negative cycle reachable from it
+    public Result run(Vertex source) {
+        int s = graph.indexOf(source);
+        if (s < 0) {
+            throw new IllegalArgumentException("Vertex is not in the graph: " + source);
+        }
+        return run(s);
+    }
+
+    // Method to compute distances from a vertex handle, or the negative cycle reachable from it
+    public Result run(int source) {
+        if (complete != null) {
+            return new RoundSearch(graph.vertexCount()).run(new int[]{source});
+        }
+        return new Search(graph.vertexCount()).run(new int[]{source});
+    }
+
+    // Method to run from a virtual source with a 0-weight arc to every vertex.
+    // The distances are the vertex potentials used by Johnson's algorithm to remove negative weights.
+    public Result runFromAllVertices() {
+        int[] roots = new int[graph.vertexCount()];
+        for (int v = 0; v < roots.length; v++) {
+            roots[v] = v;
+        }
+        if (complete != null) {
+            return new RoundSearch(graph.vertexCount()).run(roots);
+        }
+        return new Search(graph.vertexCount()).run(roots);
+    }
+
+    // Result of a search: either distances and predecessors, or the vertices of a negative cycle
+    public class Result {
+        private final long[] distances;
+        private final int[] predecessors;
+        private final int[] cycle;
+
+        private Result(long[] distances, int[] predecessors, int[] cycle) {
+            this.distances = distances;
+            this.predecessors = predecessors;
+            this.cycle = cycle;
+        }
+
+        public boolean hasNegativeCycle() {
+            return cycle != null;
+        }
+
+        // Handles of the cycle vertices in arc order; the last vertex has an arc back to the first
+        public int[] getCycle() {
+            return cycle;
+        }
+
+        public List<Vertex> getCycleVertices() {
+            List<Vertex> result = new ArrayList<>();
+            if (cycle != null) {
+                for (int v : cycle) {
+                    result.add(graph.vertexAt(v));
+                }
+            }
+            return result;
+        }
+
+        // Method to get the distance to a vertex handle, or DijkstraEngine.UNREACHABLE
+        public long distance(int vertex) {
+            requireNoCycle();
+            return distances[vertex];
+        }
+
+        public long distance(Vertex vertex) {
+            int v = graph.indexOf(vertex);
+            return v < 0 ? DijkstraEngine.UNREACHABLE : distance(v);
+        }
+
+        // Distances indexed by vertex handle; unreachable vertices hold DijkstraEngine.UNREACHABLE
+        public long[] getDistances() {
+            requireNoCycle();
+            return distances;
+        }
+
+        // Method to get the vertex handles on a shortest path, or null if the target is unreachable
+        public int[] path(int target) {
+            requireNoCycle();
+            if (distances[target] == DijkstraEngine.UNREACHABLE) {
+                return null;
+            }
+            int length = 1;
+            for (int v = target; predecessors[v] >= 0; v = predecessors[v]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int v = target, i = length - 1; i >= 0; v = predecessors[v], i--) {
+                path[i] = v;
+            }
+            return path;
+        }
+
+        private void requireNoCycle() {
+            if (cycle != null) {
+                throw new IllegalStateException("Shortest paths are undefined: negative cycle " + getCycleVertices());
+            }
+        }
+    }
+
+    // One run of the algorithm. The shortest-path tree is kept as a doubly linked list in preorder
+    // together with the depth of every vertex, so the subtree of v is the run of vertices after v
+    // whose depth is larger than depth[v].
+    private class Search {
+        private final long[] dist;
+        private final int[] parent;
+        private final int[] depth;
+        private final int[] next;
+        private final int[] prev;
+        private final boolean[] inTree;
+        private final boolean[] queued;
+        private final int[] queue;
+        private int head;
+        private int tail;
+
+        Search(int vertexCount) {
+            dist = new long[vertexCount];
+            parent = new int[vertexCount];
+            depth = new int[vertexCount];
+            next = new int[vertexCount];
+            prev = new int[vertexCount];
+            inTree = new boolean[vertexCount];
+            queued = new boolean[vertexCount];
+            queue = new int[vertexCount + 1];
+            Arrays.fill(dist, DijkstraEngine.UNREACHABLE);
+            Arrays.fill(parent, -1);
+        }
+
+        // Method to run from one or more roots, all starting at distance 0
+        Result run(int[] roots) {
+            if (roots.length == 0) {
+                return new Result(dist, parent, null);
+            }
+            // Every root is linked into one preorder list so subtree walks always terminate
+            int previous = -1;
+            for (int root : roots) {
+                dist[root] = 0;
+                depth[root] = 0;
+                inTree[root] = true;
+                prev[root] = previous;
+                if (previous >= 0) {
+                    next[previous] = root;
+                }
+                previous = root;
+                enqueue(root);
+            }
+            next[previous] = -1;
+
+            while (head != tail) {
+                int u = dequeue();
+                if (!inTree[u]) {
+                    // The label of u is stale because an ancestor improved; u will be reached again
+                    continue;
+                }
+                long du = dist[u];
+                for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                    int v = graph.target(e);
+                    long candidate = du + graph.weight(e);
+                    if (candidate >= dist[v]) {
+                        continue;
+                    }
+                    if (v == u || (inTree[v] && disassemble(v, u))) {
+                        return new Result(null, null, cycleThrough(u, v));
+                    }
+                    dist[v] = candidate;
+                    parent[v] = u;
+                    depth[v] = depth[u] + 1;
+                    inTree[v] = true;
+                    linkAfter(u, v);
+                    if (!queued[v]) {
+                        enqueue(v);
+                    }
+                }
+            }
+            return new Result(dist, parent, null);
+        }
+
+        // Method to remove v and its subtree from the tree; returns true if u is inside the subtree
+        private boolean disassemble(int v, int u) {
+            int last = v;
+            int x = next[v];
+            while (x >= 0 && depth[x] > depth[v]) {
+                if (x == u) {
+                    return true;
+                }
+                inTree[x] = false;
+                last = x;
+                x = next[x];
+            }
+            // Unlink the run v..last from the preorder list
+            int before = prev[v];
+            if (before >= 0) {
+                next[before] = x;
+            }
+            if (x >= 0) {
+                prev[x] = before;
+            }
+            inTree[v] = false;
+            return false;
+        }
+
+        // Method to insert v right after its new parent u, making it the first child in preorder
+        private void linkAfter(int u, int v) {
+            int after = next[u];
+            next[u] = v;
+            prev[v] = u;
+            next[v] = after;
+            if (after >= 0) {
+                prev[after] = v;
+            }
+        }
+
+        // Method to list the cycle closed by the arc u -> v, where u is a tree descendant of v
+        private int[] cycleThrough(int u, int v) {
+            int length = 1;
+            for (int x = u; x != v; x = parent[x]) {
+                length++;
+            }
+            int[] cycle = new int[length];
+            int i = length - 1;
+            for (int x = u; x != v; x = parent[x]) {
+                cycle[i--] = x;
+            }
+            cycle[0] = v;
+            return cycle;
+        }
+
+        private void enqueue(int v) {
+            queue[tail] = v;
+            tail = tail + 1 == queue.length ? 0 : tail + 1;
+            queued[v] = true;
+        }
+
+        private int dequeue() {
+            int v = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
+            queued[v] = false;
+            return v;
+        }
+    }
+
+    // One run on a CompleteGraphView, in rounds. Every update is a real relaxation of an explicit or
+    // implicit arc, so a cycle in the predecessor graph is a negative cycle; it is looked for after
+    // each round, and without one the run ends when a round changes nothing.
+    private class RoundSearch {
+        private final long[] dist;
+        private final int[] parent;
+        private final int[] walkMark;
+        private final int[] order;
+        private final int[] scratch;
+        private final int n;
+
+        RoundSearch(int vertexCount) {
+            n = vertexCount;
+            dist = new long[vertexCount];
+            parent = new int[vertexCount];
+            walkMark = new int[vertexCount];
+            order = new int[vertexCount];
+            scratch = new int[vertexCount];
+            Arrays.fill(dist, DijkstraEngine.UNREACHABLE);
+            Arrays.fill(parent, -1);
+        }
+
+        // Method to run from one or more roots, all starting at distance 0
+        Result run(int[] roots) {
+            for (int root : roots) {
+                dist[root] = 0;
+            }
+            long defaultWeight = complete.getDefaultWeight();
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+
+                // Explicit arcs
+                for (int u = 0; u < n; u++) {
+                    if (dist[u] == DijkstraEngine.UNREACHABLE) {
+                        continue;
+                    }
+                    for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                        int v = graph.target(e);
+                        long candidate = dist[u] + graph.weight(e);
+                        if (candidate < dist[v]) {
+                            dist[v] = candidate;
+                            parent[v] = u;
+                            changed = true;
+                        }
+                    }
+                }
+
+                // Implicit arcs: the best tail for v is the closest vertex other than v whose arc to v
+                // is not overridden. Each skipped vertex has an explicit arc into v (or is v), so the
+                // scans of a round cost O(V + E) on top of the sort.
+                int[] order = reachedByDistance();
+                for (int v = 0; v < n; v++) {
+                    for (int u : order) {
+                        if (u == v || complete.hasExplicitArc(u, v)) {
+                            continue;
+                        }
+                        long candidate = dist[u] + defaultWeight;
+                        if (candidate < dist[v]) {
+                            dist[v] = candidate;
+                            parent[v] = u;
+                            changed = true;
+                        }
+                        break;
+                    }
+                }
+
+                if (changed) {
+                    int[] cycle = findParentCycle();
+                    if (cycle != null) {
+                        return new Result(null, null, cycle);
+                    }
+                }
+            }
+            return new Result(dist, parent, null);
+        }
+
+        // Method to list the reached vertices in order of distance at the start of the scan
+        private int[] reachedByDistance() {
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                if (dist[v] != DijkstraEngine.UNREACHABLE) {
+                    order[count++] = v;
+                }
+            }
+            // Bottom-up merge sort of the handles by distance, without boxing
+            int[] from = order;
+            int[] to = scratch;
+            for (int width = 1; width < count; width *= 2) {
+                for (int low = 0; low < count; low += 2 * width) {
+                    int middle = Math.min(low + width, count);
+                    int high = Math.min(low + 2 * width, count);
+                    int i = low;
+                    int j = middle;
+                    for (int k = low; k < high; k++) {
+                        to[k] = j >= high || (i < middle && dist[from[i]] <= dist[from[j]]) ? from[i++] : from[j++];
+                    }
+                }
+                int[] swap = from;
+                from = to;
+                to = swap;
+            }
+            return Arrays.copyOf(from, count);
+        }
+
+        // Method to find a cycle in the predecessor graph, in arc order, or null if it is a forest
+        private int[] findParentCycle() {
+            Arrays.fill(walkMark, -1);
+            for (int start = 0; start < n; start++) {
+                int v = start;
+                while (v >= 0 && walkMark[v] < 0) {
+                    walkMark[v] = start;
+                    v = parent[v];
+                }
+                if (v >= 0 && walkMark[v] == start) {
+                    // v is on a cycle; parents point against the arcs, so reverse the walk
+                    IntList cycle = new IntList();
+                    int x = v;
+                    do {
+                        cycle.add(x);
+                        x = parent[x];
+                    } while (x != v);
+                    cycle.reverse();
+                    return cycle.toArray();
+                }
+            }
+            return null;
+        }
+    }
+}
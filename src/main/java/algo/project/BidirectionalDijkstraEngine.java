@@ -0,0 +1,152 @@
+package algo.project;
+
+// Bidirectional Dijkstra for point-to-point queries on graphs with non-negative weights.
+// One search grows forward from the source and one grows backward from the target over the
+// transposed graph, always expanding the side whose closest queued vertex is nearer. Every arc
+// that links a vertex reached forward to a vertex reached backward is a candidate meeting.
+// Once the two smallest queued distances add up to at least the best candidate, no shorter path
+// can exist, so the query stops; each side has then settled roughly the ball of half the distance.
+// No preprocessing is needed apart from the transposed graph.
+public class BidirectionalDijkstraEngine implements PointToPointEngine {
+
+    private final CompactGraph graph;
+    private final CompactGraph reverse;
+    private final ThreadLocal<Query> queries;
+    private final EngineMetrics metrics = new EngineMetrics("BidirectionalDijkstra");
+
+    // Constructor to freeze the graph into compact form for querying
+    public BidirectionalDijkstraEngine(Graph graph) {
+        this(CompactGraph.fromGraph(graph));
+    }
+
+    // Constructor to query an already frozen graph
+    public BidirectionalDijkstraEngine(CompactGraph graph) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative weights, found " + graph.minWeight());
+        }
+        this.graph = graph;
+        this.reverse = graph.transpose();
+        int vertexCount = graph.vertexCount();
+        this.queries = ThreadLocal.withInitial(() -> new Query(vertexCount));
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public long distance(int source, int target) {
+        return queries.get().run(source, target);
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        Query query = queries.get();
+        if (query.run(source, target) == DijkstraEngine.UNREACHABLE) {
+            return null;
+        }
+        // Forward predecessors lead back to the source, backward predecessors lead on to the target
+        IntList path = new IntList();
+        for (int v = query.meeting; v >= 0; v = query.forward.pred[v]) {
+            path.add(v);
+        }
+        path.reverse();
+        for (int v = query.backward.pred[query.meeting]; v >= 0; v = query.backward.pred[v]) {
+            path.add(v);
+        }
+        return path.toArray();
+    }
+
+    @Override
+    public int lastSettledCount() {
+        Query query = queries.get();
+        return query.forward.settled + query.backward.settled;
+    }
+
+    @Override
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Per-thread state of a query: one search in each direction and the vertex where they meet
+    private class Query {
+        final SearchState forward;
+        final SearchState backward;
+        long best;
+        int meeting;
+
+        Query(int vertexCount) {
+            forward = new SearchState(vertexCount);
+            backward = new SearchState(vertexCount);
+        }
+
+        // Method to run both searches and return the shortest distance, or DijkstraEngine.UNREACHABLE
+        long run(int source, int target) {
+            QueryStats stats = metrics.begin();
+            long distance = search(source, target);
+            if (stats != null) {
+                metrics.end(stats, source, target, distance, forward, backward);
+            }
+            return distance;
+        }
+
+        private long search(int source, int target) {
+            forward.reset();
+            backward.reset();
+            forward.reach(source, 0, -1);
+            forward.heap.push(source, 0);
+            backward.reach(target, 0, -1);
+            backward.heap.push(target, 0);
+            best = DijkstraEngine.UNREACHABLE;
+            meeting = -1;
+            if (source == target) {
+                best = 0;
+                meeting = source;
+                return best;
+            }
+
+            while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+                long forwardTop = forward.heap.peekKey();
+                long backwardTop = backward.heap.peekKey();
+                if (best != DijkstraEngine.UNREACHABLE && forwardTop + backwardTop >= best) {
+                    break;
+                }
+                if (forwardTop <= backwardTop) {
+                    settle(forward, backward, graph);
+                } else {
+                    settle(backward, forward, reverse);
+                }
+            }
+            return best;
+        }
+
+        // Method to settle the closest vertex of one direction and relax its arcs
+        private void settle(SearchState state, SearchState other, CompactGraph arcs) {
+            long d = state.heap.peekKey();
+            int v = state.heap.poll();
+            state.settled++;
+            int first = arcs.firstEdge(v);
+            int end = arcs.endEdge(v);
+            state.relaxed += end - first;
+            for (int e = first; e < end; e++) {
+                int w = arcs.target(e);
+                long candidate = d + arcs.weight(e);
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    state.heap.push(w, candidate);
+                } else if (candidate < state.dist[w]) {
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    state.heap.decreaseKey(w, candidate);
+                } else {
+                    continue;
+                }
+                // An improved w that the other side has reached joins the two searches
+                if (other.isReached(w) && candidate + other.dist[w] < best) {
+                    best = candidate + other.dist[w];
+                    meeting = w;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package algo.project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Writer of the binary graph snapshot that MappedGraph loads.
+// All numbers are little-endian and every section starts at a multiple of 8 bytes:
+//   header     magic, format version, vertex and arc counts, flags, min/max weight and the
+//              byte position of each section below
+//   offsets    int[vertexCount + 1], CSR offsets
+//   targets    int[edgeCount]
+//   weights    int[edgeCount]
+//   strings    int[3 * vertexCount + 1] start of the id, name and type of every vertex in the blob,
+//              followed by the UTF-8 blob itself
+//   idIndex    int[vertexCount], vertex handles sorted by the unsigned bytes of their id
+//   coords     double[2 * vertexCount] longitude, latitude pairs (only if FLAG_COORDINATES is set)
+public class BinaryGraphWriter {
+
+    static final int MAGIC = 0x53504746; // "SPGF"
+    static final int FORMAT_VERSION = 1;
+    static final int FLAG_COORDINATES = 1;
+    static final int HEADER_BYTES = 96;
+
+    private BinaryGraphWriter() {
+    }
+
+    // Method to write a snapshot without coordinates
+    public static void write(CompactGraph graph, Path file) throws IOException {
+        write(graph, null, file);
+    }
+
+    // Method to write a snapshot; points may be null, otherwise it holds one coordinate per vertex
+    public static void write(CompactGraph graph, GeoPointSet points, Path file) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        if (points != null && points.size() != n) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + n + " vertices");
+        }
+
+        // String table: id, name and type of every vertex in one UTF-8 blob
+        byte[][] ids = new byte[n][];
+        int[] stringStarts = new int[3 * n + 1];
+        ByteArrayBuilder blob = new ByteArrayBuilder();
+        for (int v = 0; v < n; v++) {
+            Vertex vertex = graph.vertexAt(v);
+            ids[v] = utf8(vertex.getId());
+            stringStarts[3 * v] = blob.size();
+            blob.add(ids[v]);
+            stringStarts[3 * v + 1] = blob.size();
+            blob.add(utf8(vertex.getName()));
+            stringStarts[3 * v + 2] = blob.size();
+            blob.add(utf8(vertex.getType()));
+        }
+        stringStarts[3 * n] = blob.size();
+        int[] idIndex = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparing((Integer v) -> ids[v], Arrays::compareUnsigned))
+                .mapToInt(Integer::intValue).toArray();
+
+        long offsetsAt = HEADER_BYTES;
+        long targetsAt = align(offsetsAt + 4L * (n + 1));
+        long weightsAt = align(targetsAt + 4L * m);
+        long stringsAt = align(weightsAt + 4L * m);
+        long blobAt = stringsAt + 4L * (3 * n + 1);
+        long idIndexAt = align(blobAt + blob.size());
+        long coordsAt = align(idIndexAt + 4L * n);
+        long end = points == null ? coordsAt : coordsAt + 16L * n;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(m)
+                    .putInt(points == null ? 0 : FLAG_COORDINATES)
+                    .putInt(graph.minWeight()).putInt(graph.maxWeight()).putInt(0)
+                    .putLong(offsetsAt).putLong(targetsAt).putLong(weightsAt).putLong(stringsAt)
+                    .putLong(idIndexAt).putLong(coordsAt).putLong(end);
+            writeFully(channel, header.flip(), 0);
+
+            writeInts(channel, n + 1, v -> v < n ? graph.firstEdge(v) : m, offsetsAt);
+            writeInts(channel, m, graph::target, targetsAt);
+            writeInts(channel, m, graph::weight, weightsAt);
+            writeInts(channel, stringStarts.length, i -> stringStarts[i], stringsAt);
+            writeFully(channel, ByteBuffer.wrap(blob.toArray()), blobAt);
+            writeInts(channel, n, i -> idIndex[i], idIndexAt);
+            if (points != null) {
+                writeCoordinates(channel, points, coordsAt);
+            }
+            // Pad the file so the last aligned section ends where the header says
+            if (channel.size() < end) {
+                writeFully(channel, ByteBuffer.allocate((int) (end - channel.size())), channel.size());
+            }
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static byte[] utf8(String value) {
+        return (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Method to write count ints in chunks, so a large graph never needs a second full-size buffer
+    private static void writeInts(FileChannel channel, int count, IntUnaryOperator values, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int i = 0;
+        while (i < count) {
+            buffer.clear();
+            int chunkEnd = Math.min(count, i + buffer.capacity() / 4);
+            for (; i < chunkEnd; i++) {
+                buffer.putInt(values.applyAsInt(i));
+            }
+            writeFully(channel, buffer.flip(), position);
+            position += buffer.limit();
+        }
+    }
+
+    // Method to write the longitude, latitude pairs in chunks like writeInts
+    private static void writeCoordinates(FileChannel channel, GeoPointSet points, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int count = points.size();
+        int v = 0;
+        while (v < count) {
+            buffer.clear();
+            int chunkEnd = v + Math.min(count - v, buffer.capacity() / 16);
+            for (; v < chunkEnd; v++) {
+                buffer.putDouble(points.longitude(v)).putDouble(points.latitude(v));
+            }
+            writeFully(channel, buffer.flip(), position);
+            position += buffer.limit();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Growable byte array for the string blob
+    private static class ByteArrayBuilder {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void add(byte[] values) {
+            if (size + values.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + values.length));
+            }
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
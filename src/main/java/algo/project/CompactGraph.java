@@ -0,0 +1,324 @@
+package algo.project;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Frozen compressed-sparse-row (CSR) form of a Graph.
+// Vertices are identified by dense int handles 0..vertexCount-1 and the outgoing arcs of vertex v
+// are stored at positions offsets[v]..offsets[v + 1]-1 of the targets and weights arrays.
+// An arc therefore costs 8 bytes instead of an Edge object plus its ArrayList slot, and scanning
+// the arcs of a vertex reads two sequential int arrays.
+public class CompactGraph implements AdjacencyView {
+    private final Vertex[] vertices;
+    private volatile VertexRegistry registry; // built on first lookup
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int minWeight; // smallest and largest arc weight, 0 without arcs
+    private final int maxWeight;
+
+    // Every graph, including the ones wrapped by fromCsr, comes through here, so the weight range
+    // is scanned once per graph instead of on every engine construction
+    private CompactGraph(Vertex[] vertices, VertexRegistry registry, int[] offsets, int[] targets, int[] weights) {
+        this.vertices = vertices;
+        this.registry = registry;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        int min = weights.length > 0 ? weights[0] : 0;
+        int max = min;
+        for (int weight : weights) {
+            min = Math.min(min, weight);
+            max = Math.max(max, weight);
+        }
+        this.minWeight = min;
+        this.maxWeight = max;
+    }
+
+    // Method to wrap CSR arrays that are already in order, for generators that write them directly.
+    // The arrays are not copied or checked beyond their lengths.
+    static CompactGraph fromCsr(Vertex[] vertices, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != vertices.length + 1 || targets.length != weights.length
+                || offsets[vertices.length] != targets.length) {
+            throw new IllegalArgumentException("CSR arrays do not match " + vertices.length + " vertices");
+        }
+        return new CompactGraph(vertices, null, offsets, targets, weights);
+    }
+
+    // Method to freeze a Graph; vertex handles follow the order of graph.getVertices()
+    public static CompactGraph fromGraph(Graph graph) {
+        List<Vertex> vertexList = graph.getVertices();
+        Builder builder = new Builder(vertexList.toArray(new Vertex[0]));
+        for (int i = 0; i < vertexList.size(); i++) {
+            for (Edge edge : graph.getEdges(vertexList.get(i))) {
+                builder.addEdge(i, builder.indexOf(edge.getToVertex()), edge.getWeight());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // Method to get the int handle of a vertex, or -1 if the vertex is not in the graph
+    @Override
+    public int indexOf(Vertex vertex) {
+        return getRegistry().indexOf(vertex.getId());
+    }
+
+    // Method to get the int handle of a vertex ID, or -1 if the ID is not in the graph
+    public int indexOf(String id) {
+        return getRegistry().indexOf(id);
+    }
+
+    // Registry of the vertices, whose handles are the handles of this graph
+    public VertexRegistry getRegistry() {
+        VertexRegistry current = registry;
+        if (current == null) {
+            current = VertexRegistry.of(vertices);
+            registry = current;
+        }
+        return current;
+    }
+
+    @Override
+    public Vertex vertexAt(int index) {
+        return vertices[index];
+    }
+
+    // Position of the first outgoing arc of the vertex
+    @Override
+    public int firstEdge(int vertex) {
+        return offsets[vertex];
+    }
+
+    // Position just past the last outgoing arc of the vertex
+    @Override
+    public int endEdge(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public int weight(int edge) {
+        return weights[edge];
+    }
+
+    public int outDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    // Method to get the smallest arc weight, or 0 if the graph has no arcs
+    @Override
+    public int minWeight() {
+        return minWeight;
+    }
+
+    // Method to get the largest arc weight, or 0 if the graph has no arcs
+    public int maxWeight() {
+        return maxWeight;
+    }
+
+    // Method to find the position of the cheapest arc from one handle to another, or -1
+    public int findEdge(int from, int to) {
+        int best = -1;
+        for (int e = offsets[from], end = offsets[from + 1]; e < end; e++) {
+            if (targets[e] == to && (best < 0 || weights[e] < weights[best])) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    // Method to get the length of a path of handles along the cheapest arcs between consecutive vertices
+    public long pathLength(int[] path) {
+        long length = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            length += weights[findEdge(path[i], path[i + 1])];
+        }
+        return length;
+    }
+
+    // Method to get the handles of all vertices of a type, such as "Pickup", "Dropoff" or "Garage"
+    public int[] verticesOfType(String type) {
+        return getRegistry().handlesOfType(type);
+    }
+
+    // Adapter for existing code: all vertices in handle order
+    public List<Vertex> getVertices() {
+        return Collections.unmodifiableList(Arrays.asList(vertices));
+    }
+
+    // Adapter for existing code: the outgoing arcs of a vertex as Edge objects, created on access
+    public List<Edge> getEdges(Vertex vertex) {
+        int from = indexOf(vertex);
+        if (from < 0) {
+            return Collections.emptyList();
+        }
+        int first = offsets[from];
+        int size = offsets[from + 1] - first;
+        return new AbstractList<Edge>() {
+            @Override
+            public Edge get(int i) {
+                if (i < 0 || i >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                }
+                return new Edge(vertices[from], vertices[targets[first + i]], weights[first + i]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Adapter for existing code: check if there is an arc from one vertex to another
+    public boolean checkEdgeExistence(Vertex from, Vertex to) {
+        int f = indexOf(from);
+        int t = indexOf(to);
+        return f >= 0 && t >= 0 && findEdge(f, t) >= 0;
+    }
+
+    // Method to list the arcs of the compact graph as Edge objects, mostly useful for printing
+    public List<Edge> getAllEdges() {
+        List<Edge> edges = new ArrayList<>(targets.length);
+        for (Vertex vertex : vertices) {
+            edges.addAll(getEdges(vertex));
+        }
+        return edges;
+    }
+
+    // Method to thaw the compact graph back into a mutable Graph
+    public Graph toGraph() {
+        Graph graph = new Graph();
+        for (Vertex vertex : vertices) {
+            graph.addVertex(vertex);
+        }
+        for (int v = 0; v < vertices.length; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                graph.addEdge(vertices[v], vertices[targets[e]], weights[e]);
+            }
+        }
+        return graph;
+    }
+
+    // Method to build the graph with every arc reversed, using the same vertex handles
+    public CompactGraph transpose() {
+        int[] reverseOffsets = new int[vertices.length + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int v = 0; v < vertices.length; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, vertices.length);
+        int[] reverseTargets = new int[targets.length];
+        int[] reverseWeights = new int[targets.length];
+        for (int v = 0; v < vertices.length; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int position = next[targets[e]]++;
+                reverseTargets[position] = v;
+                reverseWeights[position] = weights[e];
+            }
+        }
+        return new CompactGraph(vertices, registry, reverseOffsets, reverseTargets, reverseWeights);
+    }
+
+    // Method to get the same structure with every arc weight replaced
+    public CompactGraph withWeights(int[] newWeights) {
+        if (newWeights.length != weights.length) {
+            throw new IllegalArgumentException("Expected " + weights.length + " weights, got " + newWeights.length);
+        }
+        return new CompactGraph(vertices, registry, offsets, targets, newWeights);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGraph(" + vertices.length + " vertices, " + targets.length + " arcs)";
+    }
+
+    // Builder that collects arcs between int handles in primitive arrays and sorts them into CSR order.
+    // Arcs can be added in any order, so generators and loaders can stream straight into it.
+    public static class Builder {
+        private final Vertex[] vertices;
+        private VertexRegistry registry;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int[] weight = new int[16];
+        private int size;
+
+        // Constructor to create a builder for the given vertices, whose handles are their array positions
+        public Builder(Vertex[] vertices) {
+            this.vertices = vertices;
+        }
+
+        public int vertexCount() {
+            return vertices.length;
+        }
+
+        public int edgeCount() {
+            return size;
+        }
+
+        // Method to get the handle of a vertex passed to the constructor, or -1
+        public int indexOf(Vertex vertex) {
+            if (registry == null) {
+                registry = VertexRegistry.of(vertices);
+            }
+            return registry.indexOf(vertex.getId());
+        }
+
+        // Method to add an arc between two handles
+        public Builder addEdge(int fromVertex, int toVertex, int edgeWeight) {
+            if (fromVertex < 0 || fromVertex >= vertices.length || toVertex < 0 || toVertex >= vertices.length) {
+                throw new IllegalArgumentException("Arc " + fromVertex + " -> " + toVertex + " is outside 0.." + (vertices.length - 1));
+            }
+            if (size == from.length) {
+                int capacity = size + (size >> 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[size] = fromVertex;
+            to[size] = toVertex;
+            weight[size] = edgeWeight;
+            size++;
+            return this;
+        }
+
+        // Method to create the CSR arrays with a counting sort on the source handle
+        public CompactGraph build() {
+            int[] offsets = new int[vertices.length + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int v = 0; v < vertices.length; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, vertices.length);
+            int[] targets = new int[size];
+            int[] weights = new int[size];
+            for (int i = 0; i < size; i++) {
+                int position = next[from[i]]++;
+                targets[position] = to[i];
+                weights[position] = weight[i];
+            }
+            return new CompactGraph(vertices, registry, offsets, targets, weights);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Complete directed graph given implicitly: every ordered pair of distinct vertices has an arc of
+// the default weight, except the pairs that have explicit arcs in the overrides graph, which keep
+// their own (cheapest) weight. This is the shape of the graph built by NegativeGraph, where the
+// CSV arcs are completed with 0-weight arcs, but only the explicit arcs are stored, so memory is
+// O(V + E) instead of O(V^2). An EdgeIndex answers "is this pair overridden" in O(1).
+public class CompleteGraphView {
+
+    private final CompactGraph overrides;
+    private final EdgeIndex index;
+    private final int defaultWeight;
+
+    // Constructor with the explicit arcs and the weight of every other pair
+    public CompleteGraphView(CompactGraph overrides, int defaultWeight) {
+        this.overrides = overrides;
+        this.index = new EdgeIndex(overrides);
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int vertexCount() {
+        return overrides.vertexCount();
+    }
+
+    // Graph of the explicit arcs; its vertex handles are the handles of the view
+    public CompactGraph getOverrides() {
+        return overrides;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    // Method to check if the pair has an explicit arc, so no implicit arc of the default weight
+    public boolean hasExplicitArc(int from, int to) {
+        return index.contains(from, to);
+    }
+
+    // Method to get the weight of the arc from one handle to another, or DijkstraEngine.UNREACHABLE
+    // for a vertex to itself without an explicit loop
+    public long weight(int from, int to) {
+        int edge = index.find(from, to);
+        if (edge >= 0) {
+            return overrides.weight(edge);
+        }
+        return from == to ? DijkstraEngine.UNREACHABLE : defaultWeight;
+    }
+
+    // Number of arcs the view represents without storing them
+    public long implicitArcCount() {
+        long n = vertexCount();
+        long explicitPairs = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = overrides.firstEdge(v), end = overrides.endEdge(v); e < end; e++) {
+                int w = overrides.target(e);
+                // Count each overridden pair once, at its cheapest arc
+                if (w != v && index.find(v, w) == e) {
+                    explicitPairs++;
+                }
+            }
+        }
+        return n * (n - 1) - explicitPairs;
+    }
+
+    // Method to materialise every arc into a mutable Graph; only sensible for small graphs
+    public Graph toGraph() {
+        Graph graph = new Graph();
+        List<Vertex> vertices = new ArrayList<>(overrides.getVertices());
+        for (Vertex vertex : vertices) {
+            graph.addVertex(vertex);
+        }
+        for (int v = 0; v < vertices.size(); v++) {
+            for (int e = overrides.firstEdge(v), end = overrides.endEdge(v); e < end; e++) {
+                graph.addEdge(vertices.get(v), vertices.get(overrides.target(e)), overrides.weight(e));
+            }
+            for (int w = 0; w < vertices.size(); w++) {
+                if (w != v && !index.contains(v, w)) {
+                    graph.addEdge(vertices.get(v), vertices.get(w), defaultWeight);
+                }
+            }
+        }
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        return "CompleteGraphView(" + vertexCount() + " vertices, " + overrides.edgeCount()
+                + " explicit arcs, default weight " + defaultWeight + ")";
+    }
+}
@@ -0,0 +1,329 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Graph that can be updated while queries run on it.
+// Readers take the current Snapshot with a single atomic read and never lock; a snapshot is
+// immutable, so a query sees one consistent version however long it runs. Writers collect their
+// changes in a Batch and publish it as a new snapshot under a lock, one batch at a time.
+// Arc weights are stored in chunks of 4096, and a batch that only changes weights copies the
+// chunks it touches plus the small array of chunk references; the CSR topology, the vertices and
+// every other chunk are shared with the previous snapshot. A batch that adds vertices or arcs
+// rebuilds the CSR arrays, which is O(V + E), so structural changes should be batched.
+public class ConcurrentGraph {
+
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicReference<Snapshot> current;
+
+    // Constructor to start from a frozen graph
+    public ConcurrentGraph(CompactGraph graph) {
+        this.current = new AtomicReference<>(Snapshot.of(graph, 0));
+    }
+
+    // Constructor to start from a mutable graph, which is frozen once and not followed afterwards
+    public ConcurrentGraph(Graph graph) {
+        this(graph.toCompactGraph());
+    }
+
+    // Method to get the latest published snapshot; queries should take it once and use it throughout
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    // Version of the latest snapshot; it grows by one with every published batch
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    // Method to start collecting changes against the latest snapshot
+    public Batch batch() {
+        return new Batch();
+    }
+
+    // Method to change the weight of every arc from one handle to another and publish it at once
+    public Snapshot setWeight(int from, int to, int weight) {
+        return batch().setWeight(from, to, weight).publish();
+    }
+
+    // Method to apply a batch to the latest snapshot and publish the result
+    private synchronized Snapshot publish(Batch batch) {
+        Snapshot base = current.get();
+        Snapshot next = batch.structural() ? rebuild(base, batch) : reweigh(base, batch, base.version + 1);
+        current.set(next);
+        return next;
+    }
+
+    // Method to copy the touched weight chunks and write the new weights into the copies
+    private static Snapshot reweigh(Snapshot base, Batch batch, long version) {
+        int[][] chunks = base.weightChunks.clone();
+        int[] chunkMins = base.chunkMins.clone();
+        boolean[] copied = new boolean[chunks.length];
+        for (int i = 0; i < batch.weightFrom.size(); i++) {
+            int from = batch.weightFrom.get(i);
+            int to = batch.weightTo.get(i);
+            if (from < 0 || from >= base.vertexCount()) {
+                throw new IllegalArgumentException("Vertex handle " + from + " is outside 0.." + (base.vertexCount() - 1));
+            }
+            int found = 0;
+            for (int e = base.firstEdge(from), end = base.endEdge(from); e < end; e++) {
+                if (base.targets[e] == to) {
+                    int chunk = e >>> CHUNK_BITS;
+                    if (!copied[chunk]) {
+                        chunks[chunk] = chunks[chunk].clone();
+                        copied[chunk] = true;
+                    }
+                    chunks[chunk][e & CHUNK_MASK] = batch.weightValue.get(i);
+                    found++;
+                }
+            }
+            if (found == 0) {
+                throw new IllegalArgumentException("No arc " + from + " -> " + to + " to reweigh");
+            }
+        }
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            if (copied[chunk]) {
+                chunkMins[chunk] = minOf(chunks[chunk]);
+            }
+        }
+        return new Snapshot(version, base.vertices, base.registry, base.offsets, base.targets, chunks, chunkMins);
+    }
+
+    // Method to rebuild the CSR arrays with the new vertices and arcs, then apply the new weights
+    private static Snapshot rebuild(Snapshot base, Batch batch) {
+        List<Vertex> vertices = new ArrayList<>(Arrays.asList(base.vertices));
+        VertexRegistry registry = VertexRegistry.of(base.vertices);
+        for (Vertex vertex : batch.newVertices) {
+            if (registry.indexOf(vertex) < 0) {
+                registry.intern(vertex);
+                vertices.add(vertex);
+            }
+        }
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertices.toArray(new Vertex[0]));
+        for (int v = 0; v < base.vertexCount(); v++) {
+            for (int e = base.firstEdge(v), end = base.endEdge(v); e < end; e++) {
+                builder.addEdge(v, base.target(e), base.weight(e));
+            }
+        }
+        for (int i = 0; i < batch.arcFrom.size(); i++) {
+            builder.addEdge(resolve(batch, batch.arcFrom.get(i), registry), resolve(batch, batch.arcTo.get(i), registry),
+                    batch.arcWeight.get(i));
+        }
+        Snapshot rebuilt = Snapshot.of(builder.build(), base.version + 1);
+        return batch.weightFrom.isEmpty() ? rebuilt : reweigh(rebuilt, batch, rebuilt.version);
+    }
+
+    // Arc ends are handles when non-negative and -1 - i for the i-th vertex added by the batch
+    private static int resolve(Batch batch, int end, VertexRegistry registry) {
+        return end >= 0 ? end : registry.indexOf(batch.newVertices.get(-1 - end));
+    }
+
+    private static int minOf(int[] values) {
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    // Changes collected by one writer. Nothing is visible to readers until publish, which applies
+    // every change to the latest snapshot at once or, if one of them fails, none of them.
+    // A batch is meant for a single thread and a single publish.
+    public class Batch {
+        private final IntList weightFrom = new IntList();
+        private final IntList weightTo = new IntList();
+        private final IntList weightValue = new IntList();
+        private final IntList arcFrom = new IntList();
+        private final IntList arcTo = new IntList();
+        private final IntList arcWeight = new IntList();
+        private final List<Vertex> newVertices = new ArrayList<>();
+        private boolean published;
+
+        // Method to set the weight of every arc from one handle to another; the arc must exist
+        public Batch setWeight(int from, int to, int weight) {
+            weightFrom.add(from);
+            weightTo.add(to);
+            weightValue.add(weight);
+            return this;
+        }
+
+        // Method to add an arc between handles of the latest snapshot
+        public Batch addEdge(int from, int to, int weight) {
+            if (from < 0 || to < 0) {
+                throw new IllegalArgumentException("Arc " + from + " -> " + to + " has a negative handle");
+            }
+            return addArc(from, to, weight);
+        }
+
+        // Method to add an arc between vertices, adding the vertices that are new; vertices are
+        // matched by ID, so an existing ID reuses its handle
+        public Batch addEdge(Vertex from, Vertex to, int weight) {
+            return addArc(endOf(from), endOf(to), weight);
+        }
+
+        private Batch addArc(int from, int to, int weight) {
+            arcFrom.add(from);
+            arcTo.add(to);
+            arcWeight.add(weight);
+            return this;
+        }
+
+        // Method to add a vertex unless its ID is already in the graph
+        public Batch addVertex(Vertex vertex) {
+            endOf(vertex);
+            return this;
+        }
+
+        private int endOf(Vertex vertex) {
+            int handle = current.get().indexOf(vertex);
+            if (handle >= 0) {
+                return handle;
+            }
+            newVertices.add(vertex);
+            return -newVertices.size();
+        }
+
+        boolean structural() {
+            return !newVertices.isEmpty() || !arcFrom.isEmpty();
+        }
+
+        // Method to apply the changes and publish the new snapshot
+        public Snapshot publish() {
+            if (published) {
+                throw new IllegalStateException("Batch was already published");
+            }
+            published = true;
+            return ConcurrentGraph.this.publish(this);
+        }
+    }
+
+    // Immutable version of the graph. Arc positions are only stable within one snapshot, while
+    // vertex handles stay valid in every later snapshot, as vertices are only ever appended.
+    public static final class Snapshot implements AdjacencyView {
+        private final long version;
+        private final Vertex[] vertices;
+        private final VertexRegistry registry;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[][] weightChunks;
+        private final int[] chunkMins;
+        private final int minWeight;
+
+        private Snapshot(long version, Vertex[] vertices, VertexRegistry registry, int[] offsets, int[] targets,
+                         int[][] weightChunks, int[] chunkMins) {
+            this.version = version;
+            this.vertices = vertices;
+            this.registry = registry;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weightChunks = weightChunks;
+            this.chunkMins = chunkMins;
+            int min = targets.length == 0 ? 0 : Integer.MAX_VALUE;
+            for (int chunkMin : chunkMins) {
+                min = Math.min(min, chunkMin);
+            }
+            this.minWeight = min;
+        }
+
+        // Method to copy the arrays of a frozen graph into a snapshot
+        static Snapshot of(CompactGraph graph, long version) {
+            int n = graph.vertexCount();
+            int m = graph.edgeCount();
+            Vertex[] vertices = graph.getVertices().toArray(new Vertex[0]);
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[m];
+            for (int v = 0; v < n; v++) {
+                offsets[v] = graph.firstEdge(v);
+            }
+            offsets[n] = m;
+            int[][] chunks = new int[(m + CHUNK_SIZE - 1) >>> CHUNK_BITS][];
+            int[] chunkMins = new int[chunks.length];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                int start = chunk << CHUNK_BITS;
+                chunks[chunk] = new int[Math.min(CHUNK_SIZE, m - start)];
+                for (int i = 0; i < chunks[chunk].length; i++) {
+                    targets[start + i] = graph.target(start + i);
+                    chunks[chunk][i] = graph.weight(start + i);
+                }
+                chunkMins[chunk] = minOf(chunks[chunk]);
+            }
+            return new Snapshot(version, vertices, VertexRegistry.of(vertices), offsets, targets, chunks, chunkMins);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int vertexCount() {
+            return vertices.length;
+        }
+
+        @Override
+        public int edgeCount() {
+            return targets.length;
+        }
+
+        @Override
+        public int firstEdge(int vertex) {
+            return offsets[vertex];
+        }
+
+        @Override
+        public int endEdge(int vertex) {
+            return offsets[vertex + 1];
+        }
+
+        @Override
+        public int target(int edge) {
+            return targets[edge];
+        }
+
+        @Override
+        public int weight(int edge) {
+            return weightChunks[edge >>> CHUNK_BITS][edge & CHUNK_MASK];
+        }
+
+        // Smallest arc weight, kept per chunk so a publish does not rescan every weight
+        @Override
+        public int minWeight() {
+            return minWeight;
+        }
+
+        @Override
+        public int indexOf(Vertex vertex) {
+            return registry.indexOf(vertex.getId());
+        }
+
+        public int indexOf(String id) {
+            return registry.indexOf(id);
+        }
+
+        @Override
+        public Vertex vertexAt(int index) {
+            return vertices[index];
+        }
+
+        // Method to copy the snapshot into a CompactGraph, for engines that need one
+        public CompactGraph toCompactGraph() {
+            CompactGraph.Builder builder = new CompactGraph.Builder(vertices);
+            for (int v = 0; v < vertices.length; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    builder.addEdge(v, targets[e], weight(e));
+                }
+            }
+            return builder.build();
+        }
+
+        @Override
+        public String toString() {
+            return "ConcurrentGraph.Snapshot(version " + version + ", " + vertices.length + " vertices, "
+                    + targets.length + " arcs)";
+        }
+    }
+}
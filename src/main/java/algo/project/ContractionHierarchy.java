@@ -0,0 +1,667 @@
+package algo.project;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Contraction hierarchies for fast point-to-point queries on static graphs with non-negative weights.
+// Preprocessing contracts the vertices one level at a time. Each level is an independent set of
+// vertices with locally minimal priority, and their witness searches run in parallel. Contracting v
+// adds a shortcut u -> w for each pair of neighbours whose shortest path runs through v.
+// A query then runs two small Dijkstra searches that only climb to higher-ranked vertices, one
+// forward from the source and one backward from the target, and meets in the middle.
+// The hierarchy only holds int arrays and can be saved once and loaded at startup.
+public class ContractionHierarchy implements PointToPointEngine {
+
+    private static final int MAGIC = 0x43484945; // "CHIE"
+    private static final int FORMAT_VERSION = 1;
+
+    // Witness searches give up after settling this many vertices and keep the shortcut instead.
+    // Priority estimates only need a rough shortcut count, so they use a cheaper limit.
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    private final int vertexCount;
+    private final int[] rank;
+    // Upward arcs u -> x with rank[x] > rank[u], grouped by u; middle is the contracted vertex of a shortcut or -1
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    // Arcs x -> u with rank[x] > rank[u], grouped by u and stored with x as the target
+    private final int[] downOffsets;
+    private final int[] downTargets;
+    private final int[] downWeights;
+    private final int[] downMiddles;
+
+    private final ThreadLocal<Query> queries;
+    private final EngineMetrics metrics = new EngineMetrics("ContractionHierarchy");
+
+    private ContractionHierarchy(int vertexCount, int[] rank,
+                                 int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddles,
+                                 int[] downOffsets, int[] downTargets, int[] downWeights, int[] downMiddles) {
+        this.vertexCount = vertexCount;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downTargets = downTargets;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+        this.queries = ThreadLocal.withInitial(() -> new Query(vertexCount));
+    }
+
+    // Method to preprocess a graph using every core
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return build(graph, ForkJoinPool.commonPool());
+    }
+
+    // Method to preprocess a graph with the witness searches running on the given pool
+    public static ContractionHierarchy build(CompactGraph graph, ForkJoinPool pool) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Contraction hierarchies require non-negative weights, found " + graph.minWeight());
+        }
+        return new Contractor(graph, pool).contract();
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    // Number of arcs in the hierarchy, original arcs plus shortcuts
+    public int arcCount() {
+        return upTargets.length + downTargets.length;
+    }
+
+    // Position of the vertex in the contraction order; higher ranks were contracted later
+    public int rankOf(int vertex) {
+        return rank[vertex];
+    }
+
+    @Override
+    public long distance(int source, int target) {
+        return queries.get().run(source, target);
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        Query query = queries.get();
+        if (query.run(source, target) == DijkstraEngine.UNREACHABLE) {
+            return null;
+        }
+
+        // Hierarchy arcs from the source up to the meeting vertex, then down to the target
+        IntList hops = new IntList();
+        for (int v = query.meeting; v >= 0; v = query.forward.pred[v]) {
+            hops.add(v);
+        }
+        hops.reverse();
+        for (int v = query.backward.pred[query.meeting]; v >= 0; v = query.backward.pred[v]) {
+            hops.add(v);
+        }
+
+        IntList path = new IntList();
+        path.add(hops.get(0));
+        for (int i = 0; i + 1 < hops.size(); i++) {
+            unpack(hops.get(i), hops.get(i + 1), path);
+        }
+        return path.toArray();
+    }
+
+    @Override
+    public int lastSettledCount() {
+        Query query = queries.get();
+        return query.forward.settled + query.backward.settled;
+    }
+
+    @Override
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Per-thread state of a query: one search in each direction and the vertex where they meet
+    private class Query {
+        final SearchState forward;
+        final SearchState backward;
+        long best;
+        int meeting;
+
+        Query(int vertexCount) {
+            forward = new SearchState(vertexCount);
+            backward = new SearchState(vertexCount);
+        }
+
+        // Method to run both upward searches and return the best meeting distance
+        long run(int source, int target) {
+            QueryStats stats = metrics.begin();
+            long distance = search(source, target);
+            if (stats != null) {
+                metrics.end(stats, source, target, distance, forward, backward);
+            }
+            return distance;
+        }
+
+        private long search(int source, int target) {
+            forward.reset();
+            backward.reset();
+            forward.reach(source, 0, -1);
+            forward.heap.push(source, 0);
+            backward.reach(target, 0, -1);
+            backward.heap.push(target, 0);
+            best = DijkstraEngine.UNREACHABLE;
+            meeting = -1;
+
+            // A direction stops once its closest queued vertex is no better than the best meeting so far
+            while (true) {
+                boolean forwardOpen = !forward.heap.isEmpty() && forward.heap.peekKey() < best;
+                boolean backwardOpen = !backward.heap.isEmpty() && backward.heap.peekKey() < best;
+                if (!forwardOpen && !backwardOpen) {
+                    break;
+                }
+                if (forwardOpen && (!backwardOpen || forward.heap.peekKey() <= backward.heap.peekKey())) {
+                    settle(forward, backward, upOffsets, upTargets, upWeights);
+                } else {
+                    settle(backward, forward, downOffsets, downTargets, downWeights);
+                }
+            }
+            return best;
+        }
+
+        // Method to settle the closest vertex of one direction and relax its upward arcs
+        private void settle(SearchState state, SearchState other, int[] offsets, int[] targets, int[] weights) {
+            long d = state.heap.peekKey();
+            int v = state.heap.poll();
+            state.settled++;
+            if (other.isReached(v) && d + other.dist[v] < best) {
+                best = d + other.dist[v];
+                meeting = v;
+            }
+            state.relaxed += offsets[v + 1] - offsets[v];
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int w = targets[e];
+                long candidate = d + weights[e];
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    state.heap.push(w, candidate);
+                } else if (candidate < state.dist[w]) {
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    state.heap.pushOrDecrease(w, candidate);
+                }
+            }
+        }
+    }
+
+    // Method to settle everything reachable upward from a vertex, following the forward arcs from a
+    // source or the backward arcs into a target; the settled vertices are appended in settling order
+    void upwardSearch(int vertex, boolean forward, SearchState state, IntList settled) {
+        int[] offsets = forward ? upOffsets : downOffsets;
+        int[] targets = forward ? upTargets : downTargets;
+        int[] weights = forward ? upWeights : downWeights;
+        state.reset();
+        state.reach(vertex, 0, -1);
+        state.heap.push(vertex, 0);
+        while (!state.heap.isEmpty()) {
+            long d = state.heap.peekKey();
+            int v = state.heap.poll();
+            state.settled++;
+            settled.add(v);
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int w = targets[e];
+                long candidate = d + weights[e];
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    state.heap.push(w, candidate);
+                } else if (candidate < state.dist[w]) {
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    state.heap.decreaseKey(w, candidate);
+                }
+            }
+        }
+    }
+
+    // Method to expand the hierarchy arc from -> to into original arcs, appending the vertices after from
+    private void unpack(int from, int to, IntList path) {
+        IntList stack = new IntList();
+        stack.add(to);
+        stack.add(from);
+        while (!stack.isEmpty()) {
+            int a = stack.removeLast();
+            int b = stack.removeLast();
+            int middle = middleOf(a, b);
+            if (middle < 0) {
+                path.add(b);
+            } else {
+                // Expand a -> middle first, then middle -> b
+                stack.add(b);
+                stack.add(middle);
+                stack.add(middle);
+                stack.add(a);
+            }
+        }
+    }
+
+    // Method to get the contracted middle vertex of the cheapest hierarchy arc a -> b, or -1 for an original arc
+    private int middleOf(int a, int b) {
+        int best = -1;
+        int middle = -1;
+        if (rank[a] < rank[b]) {
+            for (int e = upOffsets[a]; e < upOffsets[a + 1]; e++) {
+                if (upTargets[e] == b && (best < 0 || upWeights[e] < best)) {
+                    best = upWeights[e];
+                    middle = upMiddles[e];
+                }
+            }
+        } else {
+            for (int e = downOffsets[b]; e < downOffsets[b + 1]; e++) {
+                if (downTargets[e] == a && (best < 0 || downWeights[e] < best)) {
+                    best = downWeights[e];
+                    middle = downMiddles[e];
+                }
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("No hierarchy arc " + a + " -> " + b);
+        }
+        return middle;
+    }
+
+    // Method to save the hierarchy to a file
+    public void save(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    // Method to load a hierarchy saved with save()
+    public static ContractionHierarchy load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    // Method to write the hierarchy in a versioned binary format
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(vertexCount);
+        for (int[] array : new int[][]{rank, upOffsets, upTargets, upWeights, upMiddles,
+                downOffsets, downTargets, downWeights, downMiddles}) {
+            writeArray(out, array);
+        }
+        out.flush();
+    }
+
+    // Method to read a hierarchy written with write()
+    public static ContractionHierarchy read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a contraction hierarchy file");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported contraction hierarchy version " + version);
+        }
+        int vertexCount = in.readInt();
+        int[][] arrays = new int[9][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = readArray(in);
+        }
+        if (vertexCount < 0 || arrays[0].length != vertexCount) {
+            throw new IOException("Corrupt contraction hierarchy file");
+        }
+        for (int r : arrays[0]) {
+            if (r < 0 || r >= vertexCount) {
+                throw new IOException("Corrupt contraction hierarchy file: rank " + r + " out of range");
+            }
+        }
+        checkArcs(vertexCount, arrays[1], arrays[2], arrays[3], arrays[4], "upward");
+        checkArcs(vertexCount, arrays[5], arrays[6], arrays[7], arrays[8], "downward");
+        return new ContractionHierarchy(vertexCount, arrays[0], arrays[1], arrays[2], arrays[3], arrays[4],
+                arrays[5], arrays[6], arrays[7], arrays[8]);
+    }
+
+    // Method to check that CSR arrays read from a file are consistent, so a corrupt file fails here
+    // rather than with an index out of bounds during a query
+    private static void checkArcs(int vertexCount, int[] offsets, int[] targets, int[] weights, int[] middles,
+                                  String side) throws IOException {
+        int arcCount = targets.length;
+        if (offsets.length != vertexCount + 1 || offsets[0] != 0 || offsets[vertexCount] != arcCount
+                || weights.length != arcCount || middles.length != arcCount) {
+            throw new IOException("Corrupt contraction hierarchy file: " + side + " arc arrays do not match "
+                    + vertexCount + " vertices");
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            if (offsets[v] > offsets[v + 1]) {
+                throw new IOException("Corrupt contraction hierarchy file: " + side + " offsets decrease at vertex " + v);
+            }
+        }
+        for (int e = 0; e < arcCount; e++) {
+            if (targets[e] < 0 || targets[e] >= vertexCount || weights[e] < 0
+                    || middles[e] < -1 || middles[e] >= vertexCount) {
+                throw new IOException("Corrupt contraction hierarchy file: bad " + side + " arc " + e);
+            }
+        }
+    }
+
+    private static void writeArray(DataOutputStream out, int[] array) throws IOException {
+        out.writeInt(array.length);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (int value : array) {
+            if (!buffer.hasRemaining()) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putInt(value);
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static int[] readArray(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt contraction hierarchy file");
+        }
+        int[] array = new int[length];
+        byte[] bytes = new byte[64 * 1024];
+        int read = 0;
+        while (read < length) {
+            int count = Math.min(bytes.length / Integer.BYTES, length - read);
+            in.readFully(bytes, 0, count * Integer.BYTES);
+            ByteBuffer.wrap(bytes, 0, count * Integer.BYTES).asIntBuffer().get(array, read, count);
+            read += count;
+        }
+        return array;
+    }
+
+    // Growable arc list of one vertex during contraction; parallel arcs are merged keeping the cheapest
+    private static class ArcList {
+        int[] targets = new int[4];
+        int[] weights = new int[4];
+        int[] middles = new int[4];
+        int size;
+
+        void addOrImprove(int target, int weight, int middle) {
+            for (int i = 0; i < size; i++) {
+                if (targets[i] == target) {
+                    if (weight < weights[i]) {
+                        weights[i] = weight;
+                        middles[i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            targets[size] = target;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+    }
+
+    // Preprocessing state: the remaining graph with its shortcuts, priorities and the contraction order
+    private static class Contractor {
+        private final int n;
+        private final ForkJoinPool pool;
+        private final ArcList[] out;
+        private final ArcList[] in;
+        private final boolean[] contracted;
+        private final boolean[] inBatch;
+        private final int[] priority;
+        private final int[] contractedNeighbours;
+        private final int[] level;
+        private final int[] rank;
+        private final ThreadLocal<SearchState> witnessStates;
+
+        Contractor(CompactGraph graph, ForkJoinPool pool) {
+            this.n = graph.vertexCount();
+            this.pool = pool;
+            this.out = new ArcList[n];
+            this.in = new ArcList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new ArcList();
+                in[v] = new ArcList();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (v != u) {
+                        out[u].addOrImprove(v, graph.weight(e), -1);
+                        in[v].addOrImprove(u, graph.weight(e), -1);
+                    }
+                }
+            }
+            this.contracted = new boolean[n];
+            this.inBatch = new boolean[n];
+            this.priority = new int[n];
+            this.contractedNeighbours = new int[n];
+            this.level = new int[n];
+            this.rank = new int[n];
+            this.witnessStates = ThreadLocal.withInitial(() -> new SearchState(n));
+        }
+
+        ContractionHierarchy contract() {
+            int[] remaining = IntStream.range(0, n).toArray();
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> priority[v] = computePriority(v))).join();
+
+            int nextRank = 0;
+            while (remaining.length > 0) {
+                int[] current = remaining;
+                // Vertices whose priority is lower than that of every remaining neighbour form an independent set
+                int[] batch = pool.submit(() -> Arrays.stream(current).parallel().filter(this::isLocalMinimum).toArray()).join();
+                for (int v : batch) {
+                    inBatch[v] = true;
+                }
+                IntList[] shortcuts = new IntList[batch.length];
+                pool.submit(() -> IntStream.range(0, batch.length).parallel()
+                        .forEach(i -> shortcuts[i] = findShortcuts(batch[i], true))).join();
+
+                // Apply the shortcuts sequentially; batch vertices are never neighbours of each other
+                IntList touched = new IntList();
+                for (int i = 0; i < batch.length; i++) {
+                    int v = batch[i];
+                    contracted[v] = true;
+                    inBatch[v] = false;
+                    rank[v] = nextRank++;
+                    IntList list = shortcuts[i];
+                    for (int j = 0; j < list.size(); j += 3) {
+                        int from = list.get(j);
+                        int to = list.get(j + 1);
+                        int weight = list.get(j + 2);
+                        out[from].addOrImprove(to, weight, v);
+                        in[to].addOrImprove(from, weight, v);
+                    }
+                    for (ArcList arcs : new ArcList[]{out[v], in[v]}) {
+                        for (int j = 0; j < arcs.size; j++) {
+                            int neighbour = arcs.targets[j];
+                            if (!contracted[neighbour]) {
+                                contractedNeighbours[neighbour]++;
+                                level[neighbour] = Math.max(level[neighbour], level[v] + 1);
+                                touched.add(neighbour);
+                            }
+                        }
+                    }
+                }
+
+                // Only the neighbours of contracted vertices change priority
+                int[] update = Arrays.stream(touched.toArray()).distinct().filter(v -> !contracted[v]).toArray();
+                pool.submit(() -> Arrays.stream(update).parallel().forEach(v -> priority[v] = computePriority(v))).join();
+                remaining = Arrays.stream(current).filter(v -> !contracted[v]).toArray();
+            }
+            return freeze();
+        }
+
+        // Method to decide if the vertex has a lower (priority, id) than every remaining neighbour
+        private boolean isLocalMinimum(int v) {
+            for (ArcList arcs : new ArcList[]{out[v], in[v]}) {
+                for (int j = 0; j < arcs.size; j++) {
+                    int u = arcs.targets[j];
+                    if (!contracted[u] && (priority[u] < priority[v] || (priority[u] == priority[v] && u < v))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Priority of a vertex: twice the edge difference of contracting it, plus its contracted neighbours
+        // and its level in the hierarchy, which spread the contraction evenly over the graph
+        private int computePriority(int v) {
+            int shortcuts = findShortcuts(v, false).size() / 3;
+            int degree = 0;
+            for (ArcList arcs : new ArcList[]{out[v], in[v]}) {
+                for (int j = 0; j < arcs.size; j++) {
+                    if (!contracted[arcs.targets[j]]) {
+                        degree++;
+                    }
+                }
+            }
+            return 2 * (shortcuts - degree) + contractedNeighbours[v] + level[v];
+        }
+
+        // Method to list the shortcuts (from, to, weight triples) that contracting v requires.
+        // When avoidBatch is set the witness searches also avoid every vertex of the current batch,
+        // since those vertices disappear in the same round.
+        private IntList findShortcuts(int v, boolean avoidBatch) {
+            IntList result = new IntList();
+            ArcList incoming = in[v];
+            ArcList outgoing = out[v];
+            int maxOut = 0;
+            for (int j = 0; j < outgoing.size; j++) {
+                if (!contracted[outgoing.targets[j]]) {
+                    maxOut = Math.max(maxOut, outgoing.weights[j]);
+                }
+            }
+            for (int i = 0; i < incoming.size; i++) {
+                int u = incoming.targets[i];
+                if (contracted[u]) {
+                    continue;
+                }
+                int toV = incoming.weights[i];
+                SearchState state = witnessStates.get();
+                state.reset();
+                // The targets are marked in the state, so its reset clears them even when the stamp wraps
+                int targets = 0;
+                for (int j = 0; j < outgoing.size; j++) {
+                    int w = outgoing.targets[j];
+                    if (!contracted[w] && w != u && state.mark(w)) {
+                        targets++;
+                    }
+                }
+                witnessSearch(state, targets, u, v, (long) toV + maxOut, avoidBatch,
+                        avoidBatch ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                for (int j = 0; j < outgoing.size; j++) {
+                    int w = outgoing.targets[j];
+                    if (contracted[w] || w == u) {
+                        continue;
+                    }
+                    long via = (long) toV + outgoing.weights[j];
+                    if (state.distanceOf(w) > via) {
+                        if (via > Integer.MAX_VALUE) {
+                            throw new IllegalStateException("Shortcut weight " + via + " does not fit in an int");
+                        }
+                        result.add(u);
+                        result.add(w);
+                        result.add((int) via);
+                    }
+                }
+            }
+            return result;
+        }
+
+        // Method to run a Dijkstra from u that skips v. It stops once every marked target is settled,
+        // past maxDistance, or after a bounded number of settled vertices.
+        private void witnessSearch(SearchState state, int targets, int u, int v, long maxDistance,
+                                   boolean avoidBatch, int settleLimit) {
+            state.reach(u, 0, -1);
+            state.heap.push(u, 0);
+            while (!state.heap.isEmpty() && state.settled < settleLimit) {
+                long d = state.heap.peekKey();
+                if (d > maxDistance) {
+                    break;
+                }
+                int x = state.heap.poll();
+                state.settled++;
+                if (state.isMarked(x) && --targets == 0) {
+                    break;
+                }
+                ArcList arcs = out[x];
+                for (int j = 0; j < arcs.size; j++) {
+                    int y = arcs.targets[j];
+                    if (y == v || contracted[y] || (avoidBatch && inBatch[y])) {
+                        continue;
+                    }
+                    long candidate = d + arcs.weights[j];
+                    if (!state.isReached(y)) {
+                        state.reach(y, candidate, x);
+                        state.heap.push(y, candidate);
+                    } else if (candidate < state.dist[y]) {
+                        state.dist[y] = candidate;
+                        state.heap.pushOrDecrease(y, candidate);
+                    }
+                }
+            }
+        }
+
+        // Method to keep the upward arcs of every vertex in CSR arrays
+        private ContractionHierarchy freeze() {
+            int[] upOffsets = new int[n + 1];
+            int[] downOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] = upOffsets[v] + countHigher(out[v], v);
+                downOffsets[v + 1] = downOffsets[v] + countHigher(in[v], v);
+            }
+            int[] upTargets = new int[upOffsets[n]];
+            int[] upWeights = new int[upOffsets[n]];
+            int[] upMiddles = new int[upOffsets[n]];
+            int[] downTargets = new int[downOffsets[n]];
+            int[] downWeights = new int[downOffsets[n]];
+            int[] downMiddles = new int[downOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                copyHigher(out[v], v, upOffsets[v], upTargets, upWeights, upMiddles);
+                copyHigher(in[v], v, downOffsets[v], downTargets, downWeights, downMiddles);
+            }
+            return new ContractionHierarchy(n, rank, upOffsets, upTargets, upWeights, upMiddles,
+                    downOffsets, downTargets, downWeights, downMiddles);
+        }
+
+        private int countHigher(ArcList arcs, int v) {
+            int count = 0;
+            for (int j = 0; j < arcs.size; j++) {
+                if (rank[arcs.targets[j]] > rank[v]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void copyHigher(ArcList arcs, int v, int position, int[] targets, int[] weights, int[] middles) {
+            for (int j = 0; j < arcs.size; j++) {
+                if (rank[arcs.targets[j]] > rank[v]) {
+                    targets[position] = arcs.targets[j];
+                    weights[position] = arcs.weights[j];
+                    middles[position] = arcs.middles[j];
+                    position++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package algo.project;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Parallel single-source shortest paths with delta-stepping (Meyer and Sanders).
+// Tentative distances are grouped into buckets of width delta. All vertices of the current bucket
+// relax their light arcs (weight <= delta) in parallel until the bucket stops changing, and then
+// relax their heavy arcs once. Distances are lowered with compare-and-set, so the result is the
+// same as the sequential DijkstraEngine no matter how many threads run.
+public class DeltaSteppingEngine implements AutoCloseable {
+
+    private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Frontiers smaller than this are relaxed on the calling thread
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private final CompactGraph graph;
+    private final int delta;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    // Constructor using a delta derived from the graph and one thread per core
+    public DeltaSteppingEngine(CompactGraph graph) {
+        this(graph, defaultDelta(graph), Runtime.getRuntime().availableProcessors());
+    }
+
+    // Constructor with an explicit bucket width and number of worker threads
+    public DeltaSteppingEngine(CompactGraph graph, int delta, int threads) {
+        this(graph, delta, new ForkJoinPool(threads), true);
+    }
+
+    // Constructor running on a caller-owned pool, which close() leaves alone
+    public DeltaSteppingEngine(CompactGraph graph, int delta, ForkJoinPool pool) {
+        this(graph, delta, pool, false);
+    }
+
+    private DeltaSteppingEngine(CompactGraph graph, int delta, ForkJoinPool pool, boolean ownsPool) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta must be at least 1, got " + delta);
+        }
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Delta-stepping requires non-negative weights, found " + graph.minWeight());
+        }
+        this.graph = graph;
+        this.delta = delta;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    // Method to pick a bucket width of about one average arc weight per average out-degree
+    public static int defaultDelta(CompactGraph graph) {
+        if (graph.edgeCount() == 0) {
+            return 1;
+        }
+        double averageDegree = (double) graph.edgeCount() / graph.vertexCount();
+        return Math.max(1, (int) (graph.maxWeight() / Math.max(1.0, averageDegree)));
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // Method to get the shortest distance between two vertex handles, or DijkstraEngine.UNREACHABLE
+    public long distance(int source, int target) {
+        return distancesFrom(source)[target];
+    }
+
+    // Method to compute the distances from the source to every vertex
+    public long[] distancesFrom(int source) {
+        int vertexCount = graph.vertexCount();
+        long[] dist = new long[vertexCount];
+        Arrays.fill(dist, DijkstraEngine.UNREACHABLE);
+        dist[source] = 0;
+
+        // Tentative distances never run more than maxWeight past the current bucket, so the
+        // buckets can be reused cyclically
+        int bucketCount = graph.maxWeight() / delta + 2;
+        IntList[] buckets = new IntList[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new IntList();
+        }
+        buckets[0].add(source);
+        long queuedEntries = 1;
+
+        int[] frontierMark = new int[vertexCount];
+        int[] settledMark = new int[vertexCount];
+        int frontierStamp = 0;
+        int settledStamp = 0;
+        IntList frontier = new IntList();
+        IntList settled = new IntList();
+
+        for (long bucket = 0; queuedEntries > 0; bucket++) {
+            int slot = (int) (bucket % bucketCount);
+            if (buckets[slot].isEmpty()) {
+                continue;
+            }
+            settled.clear();
+            settledStamp++;
+
+            // Light arcs can put vertices back into the current bucket, so repeat until it is empty
+            while (!buckets[slot].isEmpty()) {
+                IntList entries = buckets[slot];
+                queuedEntries -= entries.size();
+                frontier.clear();
+                frontierStamp++;
+                for (int i = 0; i < entries.size(); i++) {
+                    int v = entries.get(i);
+                    // Skip stale entries for vertices that moved to an earlier bucket, and duplicates
+                    if (dist[v] / delta != bucket || frontierMark[v] == frontierStamp) {
+                        continue;
+                    }
+                    frontierMark[v] = frontierStamp;
+                    frontier.add(v);
+                    if (settledMark[v] != settledStamp) {
+                        settledMark[v] = settledStamp;
+                        settled.add(v);
+                    }
+                }
+                entries.clear();
+                queuedEntries += enqueue(buckets, dist, relax(frontier, dist, true));
+            }
+            queuedEntries += enqueue(buckets, dist, relax(settled, dist, false));
+        }
+        return dist;
+    }
+
+    // Method to put improved vertices into the buckets of their current distance
+    private int enqueue(IntList[] buckets, long[] dist, IntList improved) {
+        for (int i = 0; i < improved.size(); i++) {
+            int v = improved.get(i);
+            buckets[(int) ((dist[v] / delta) % buckets.length)].add(v);
+        }
+        return improved.size();
+    }
+
+    // Method to relax the light or heavy arcs of the vertices, in parallel when there are enough of them
+    private IntList relax(IntList vertices, long[] dist, boolean light) {
+        if (vertices.size() <= SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            return relaxRange(vertices, 0, vertices.size(), dist, light);
+        }
+        return pool.invoke(new RelaxTask(vertices, 0, vertices.size(), dist, light));
+    }
+
+    // Method to relax the arcs of vertices[from..to) and list the targets whose distance dropped
+    private IntList relaxRange(IntList vertices, int from, int to, long[] dist, boolean light) {
+        IntList improved = new IntList();
+        for (int i = from; i < to; i++) {
+            int v = vertices.get(i);
+            long dv = (long) DIST.getVolatile(dist, v);
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int weight = graph.weight(e);
+                if ((weight <= delta) != light) {
+                    continue;
+                }
+                int w = graph.target(e);
+                long candidate = dv + weight;
+                long current = (long) DIST.getVolatile(dist, w);
+                while (candidate < current) {
+                    if (DIST.compareAndSet(dist, w, current, candidate)) {
+                        improved.add(w);
+                        break;
+                    }
+                    current = (long) DIST.getVolatile(dist, w);
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Fork-join task that splits a frontier in halves and concatenates the improved vertices
+    private class RelaxTask extends RecursiveTask<IntList> {
+        private static final long serialVersionUID = 1L;
+
+        private final IntList vertices;
+        private final int from;
+        private final int to;
+        private final long[] dist;
+        private final boolean light;
+
+        RelaxTask(IntList vertices, int from, int to, long[] dist, boolean light) {
+            this.vertices = vertices;
+            this.from = from;
+            this.to = to;
+            this.dist = dist;
+            this.light = light;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return relaxRange(vertices, from, to, dist, light);
+            }
+            int middle = (from + to) >>> 1;
+            RelaxTask left = new RelaxTask(vertices, from, middle, dist, light);
+            left.fork();
+            IntList right = new RelaxTask(vertices, middle, to, dist, light).compute();
+            IntList result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    // Method to shut down the worker pool if the engine created it
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Dijkstra shortest-path engine for graphs with non-negative weights, such as the ones built by
+// PositiveGraph.generatePositiveGraphFromCSV.
+// The graph is queried in a CSR form (a CompactGraph or a MappedGraph), and every thread reuses its own
+// distance/predecessor arrays and indexed heap, so a query does not allocate Integer or Edge objects.
+// An engine on a ConcurrentGraph runs each query on the latest snapshot and keeps its per-thread
+// arrays across updates, so publishing a new version costs the engine nothing.
+public class DijkstraEngine implements PointToPointEngine {
+
+    // Distance reported for vertices that cannot be reached from the source
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final AdjacencyView graph; // null when following a ConcurrentGraph
+    private final ConcurrentGraph live;
+    private final ThreadLocal<SearchState> states;
+    private final EngineMetrics metrics = new EngineMetrics("Dijkstra");
+
+    // Constructor to freeze the graph into compact form for querying
+    public DijkstraEngine(Graph graph) {
+        this(CompactGraph.fromGraph(graph));
+    }
+
+    // Constructor to query an already frozen or memory-mapped graph
+    public DijkstraEngine(AdjacencyView graph) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative weights, found " + graph.minWeight());
+        }
+        this.graph = graph;
+        this.live = null;
+        int vertexCount = graph.vertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(vertexCount));
+    }
+
+    // Constructor to follow a graph that is updated while it is queried; every query fails with an
+    // IllegalStateException while the latest snapshot has a negative weight
+    public DijkstraEngine(ConcurrentGraph graph) {
+        this.graph = null;
+        this.live = graph;
+        this.states = ThreadLocal.withInitial(() -> new SearchState(graph.snapshot().vertexCount()));
+    }
+
+    // Method to get the graph the next query runs on; for a ConcurrentGraph this is its latest snapshot
+    public AdjacencyView getGraph() {
+        return live != null ? live.snapshot() : graph;
+    }
+
+    // Method to get the shortest distance between two vertex handles, or UNREACHABLE
+    @Override
+    public long distance(int source, int target) {
+        return search(getGraph(), source, target).distanceOf(target);
+    }
+
+    // Method to get the shortest distance between two vertices, or UNREACHABLE
+    public long distance(Vertex source, Vertex target) {
+        AdjacencyView view = getGraph();
+        int s = view.indexOf(source);
+        int t = view.indexOf(target);
+        if (s < 0 || t < 0) {
+            return UNREACHABLE;
+        }
+        return search(view, s, t).distanceOf(t);
+    }
+
+    // Method to get the vertex handles on a shortest path, or null if the target is unreachable
+    @Override
+    public int[] path(int source, int target) {
+        SearchState state = search(getGraph(), source, target);
+        return state.isReached(target) ? state.extractPath(target) : null;
+    }
+
+    // Method to get the vertices on a shortest path, or an empty list if the target is unreachable
+    public List<Vertex> path(Vertex source, Vertex target) {
+        AdjacencyView view = getGraph();
+        int s = view.indexOf(source);
+        int t = view.indexOf(target);
+        List<Vertex> result = new ArrayList<>();
+        if (s < 0 || t < 0) {
+            return result;
+        }
+        SearchState state = search(view, s, t);
+        if (state.isReached(t)) {
+            for (int handle : state.extractPath(t)) {
+                result.add(view.vertexAt(handle));
+            }
+        }
+        return result;
+    }
+
+    // Method to write the distances from the source to every vertex into a caller-owned array
+    public void distancesFrom(int source, long[] out) {
+        AdjacencyView view = getGraph();
+        SearchState state = search(view, source, -1);
+        for (int v = 0; v < view.vertexCount(); v++) {
+            out[v] = state.distanceOf(v);
+        }
+    }
+
+    @Override
+    public int lastSettledCount() {
+        return states.get().settled;
+    }
+
+    @Override
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Method to settle every vertex reachable from the source; the state belongs to the calling thread
+    SearchState searchFrom(int source) {
+        return search(getGraph(), source, -1);
+    }
+
+    // Method to run the search; it stops as soon as the target is settled (target -1 settles everything)
+    private SearchState search(AdjacencyView graph, int source, int target) {
+        QueryStats stats = metrics.begin();
+        SearchState state = states.get();
+        if (live != null) {
+            if (graph.minWeight() < 0) {
+                throw new IllegalStateException("Dijkstra requires non-negative weights, found " + graph.minWeight());
+            }
+            // Vertices added by later snapshots need room in this thread's arrays
+            state.ensureCapacity(graph.vertexCount());
+        }
+        state.reset();
+        IndexedMinHeap heap = state.heap;
+        state.reach(source, 0, -1);
+        heap.push(source, 0);
+
+        while (!heap.isEmpty()) {
+            long d = heap.peekKey();
+            int v = heap.poll();
+            state.settled++;
+            if (v == target) {
+                break;
+            }
+            int first = graph.firstEdge(v);
+            int end = graph.endEdge(v);
+            state.relaxed += end - first;
+            for (int e = first; e < end; e++) {
+                int w = graph.target(e);
+                long candidate = d + graph.weight(e);
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    heap.push(w, candidate);
+                } else if (candidate < state.dist[w]) {
+                    // A reached vertex with a larger distance is still queued, because weights are non-negative
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    heap.decreaseKey(w, candidate);
+                }
+            }
+        }
+        if (stats != null) {
+            metrics.end(stats, source, target, target >= 0 ? state.distanceOf(target) : UNREACHABLE, state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,125 @@
+package algo.project;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// Dense rows x cols matrix of long distances.
+// Small matrices live in one long[] on the heap. Large ones are split into direct (off-heap) segments,
+// so an all-pairs table for thousands of vertices neither hits the array size limit nor fills the heap.
+// Distinct cells can be written from different threads without locking.
+public class DistanceMatrix {
+
+    // Matrices with more cells than this are stored off-heap
+    public static final long OFF_HEAP_THRESHOLD = 1L << 24;
+
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final int rows;
+    private final int cols;
+    private final long[] heapCells;
+    private final LongBuffer[] segments;
+
+    // Constructor that stores the matrix on the heap or off-heap depending on its size
+    public DistanceMatrix(int rows, int cols) {
+        this(rows, cols, (long) rows * cols > OFF_HEAP_THRESHOLD);
+    }
+
+    // Constructor with an explicit choice of storage
+    public DistanceMatrix(int rows, int cols, boolean offHeap) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative matrix size " + rows + " x " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        long cells = (long) rows * cols;
+        if (!offHeap && cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrix of " + cells + " cells does not fit on the heap");
+        }
+        if (offHeap) {
+            int segmentCount = (int) ((cells + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new LongBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long segmentCells = Math.min(1L << SEGMENT_SHIFT, cells - ((long) i << SEGMENT_SHIFT));
+                segments[i] = ByteBuffer.allocateDirect((int) segmentCells * Long.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asLongBuffer();
+            }
+            this.heapCells = null;
+        } else {
+            this.heapCells = new long[(int) cells];
+            this.segments = null;
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public boolean isOffHeap() {
+        return segments != null;
+    }
+
+    public long get(int row, int col) {
+        long index = index(row, col);
+        if (heapCells != null) {
+            return heapCells[(int) index];
+        }
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    public void set(int row, int col, long value) {
+        long index = index(row, col);
+        if (heapCells != null) {
+            heapCells[(int) index] = value;
+        } else {
+            segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+        }
+    }
+
+    // Method to set every cell to the same value
+    public void fill(long value) {
+        if (heapCells != null) {
+            Arrays.fill(heapCells, value);
+            return;
+        }
+        for (LongBuffer segment : segments) {
+            for (int i = 0; i < segment.capacity(); i++) {
+                segment.put(i, value);
+            }
+        }
+    }
+
+    // Method to copy one row into a caller-owned array
+    public void getRow(int row, long[] out) {
+        for (int col = 0; col < cols; col++) {
+            out[col] = get(row, col);
+        }
+    }
+
+    private long index(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") outside " + rows + " x " + cols);
+        }
+        return (long) row * cols + col;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                long value = get(row, col);
+                sb.append(value == DijkstraEngine.UNREACHABLE ? "inf" : String.valueOf(value));
+                sb.append(col + 1 < cols ? " " : "\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,310 @@
+package algo.project;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Shortest-path trees from a few fixed sources (such as the garages) that are repaired in place
+// when an arc weight changes, in the style of Ramalingam and Reps, instead of being recomputed.
+//   decrease  the head of the arc gets a shorter distance only if the new arc beats it, and the
+//             improvement spreads with a Dijkstra search that only visits the improved vertices
+//   increase  nothing changes unless the arc is a tree arc. Otherwise the vertices below it are
+//             visited in distance order, and any of them with another shortest path that avoids
+//             the changed arc keeps its distance and shields its own subtree. The remaining
+//             affected vertices are seeded from their unaffected in-neighbours and settled by a
+//             Dijkstra search restricted to them.
+// Either way the work is proportional to the affected vertices and their arcs, not to the graph.
+// The engine keeps its own copy of the arc weights; it is thread-safe, with updates and queries
+// serialised on the engine.
+public class DynamicShortestPaths {
+
+    private final AdjacencyView graph;
+    private final int[] weights;
+    private final int[] tails;
+    // Incoming arcs of every vertex, stored as the positions of the forward arcs
+    private final int[] reverseOffsets;
+    private final int[] reverseEdges;
+    private final int[] sources;
+    private final Tree[] trees;
+
+    // Scratch space of an update; entries are current when their stamp matches
+    private final IndexedMinHeap heap;
+    private final int[] candidateStamp;
+    private final int[] affectedStamp;
+    private final long[] previousDistance;
+    private final IntList affected = new IntList();
+    private int stamp;
+    private int lastTouched;
+
+    // Constructor to build a tree from each source; weights must be non-negative
+    public DynamicShortestPaths(AdjacencyView graph, int[] sources) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Dynamic shortest paths require non-negative weights, found " + graph.minWeight());
+        }
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        this.graph = graph;
+        this.sources = sources.clone();
+        this.weights = new int[m];
+        this.tails = new int[m];
+        this.reverseOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                weights[e] = graph.weight(e);
+                tails[e] = v;
+                reverseOffsets[graph.target(e) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        this.reverseEdges = new int[m];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int e = 0; e < m; e++) {
+            reverseEdges[next[graph.target(e)]++] = e;
+        }
+
+        this.heap = new IndexedMinHeap(n);
+        this.candidateStamp = new int[n];
+        this.affectedStamp = new int[n];
+        this.previousDistance = new long[n];
+        this.trees = new Tree[sources.length];
+        IntStream.range(0, sources.length).parallel().forEach(i -> trees[i] = new Tree(this.sources[i]));
+    }
+
+    // Method to keep trees from every garage of the graph
+    public static DynamicShortestPaths fromGarages(CompactGraph graph) {
+        return new DynamicShortestPaths(graph, graph.verticesOfType(VertexType.GARAGE.getLabel()));
+    }
+
+    public AdjacencyView getGraph() {
+        return graph;
+    }
+
+    public int[] getSources() {
+        return sources.clone();
+    }
+
+    // Method to get the current weight of an arc position
+    public synchronized int weight(int edge) {
+        return weights[edge];
+    }
+
+    // Method to get the current distance from a tree source to a vertex, or DijkstraEngine.UNREACHABLE
+    public synchronized long distance(int source, int vertex) {
+        return treeOf(source).dist[vertex];
+    }
+
+    // Method to get the vertex handles on the current tree path from a source, or null if unreachable
+    public synchronized int[] path(int source, int vertex) {
+        Tree tree = treeOf(source);
+        if (tree.dist[vertex] == DijkstraEngine.UNREACHABLE) {
+            return null;
+        }
+        IntList path = new IntList();
+        for (int v = vertex; v >= 0; v = tree.parentEdge[v] < 0 ? -1 : tails[tree.parentEdge[v]]) {
+            path.add(v);
+        }
+        path.reverse();
+        return path.toArray();
+    }
+
+    // Method to set the weight of every arc from one handle to another and repair all trees.
+    // Returns the number of (tree, vertex) distances that changed.
+    public synchronized int setWeight(int from, int to, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Dynamic shortest paths require non-negative weights, got " + weight);
+        }
+        int changed = 0;
+        int found = 0;
+        lastTouched = 0;
+        for (int e = graph.firstEdge(from), end = graph.endEdge(from); e < end; e++) {
+            if (graph.target(e) != to) {
+                continue;
+            }
+            found++;
+            int old = weights[e];
+            weights[e] = weight;
+            for (Tree tree : trees) {
+                if (weight < old) {
+                    changed += decrease(tree, e);
+                } else if (weight > old) {
+                    changed += increase(tree, e);
+                }
+            }
+        }
+        if (found == 0) {
+            throw new IllegalArgumentException("No arc " + from + " -> " + to);
+        }
+        return changed;
+    }
+
+    // Number of vertices the last setWeight visited over all trees, as a measure of its work
+    public synchronized int lastTouchedCount() {
+        return lastTouched;
+    }
+
+    private Tree treeOf(int source) {
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] == source) {
+                return trees[i];
+            }
+        }
+        throw new IllegalArgumentException("Vertex " + source + " is not a source of these trees");
+    }
+
+    // Method to spread a shorter distance through the head of the arc after its weight went down
+    private int decrease(Tree tree, int edge) {
+        long[] dist = tree.dist;
+        int u = tails[edge];
+        int v = graph.target(edge);
+        if (dist[u] == DijkstraEngine.UNREACHABLE || dist[u] + weights[edge] >= dist[v]) {
+            return 0;
+        }
+        dist[v] = dist[u] + weights[edge];
+        tree.parentEdge[v] = edge;
+        heap.clear();
+        heap.push(v, dist[v]);
+        int changed = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            changed++;
+            for (int e = graph.firstEdge(x), end = graph.endEdge(x); e < end; e++) {
+                int y = graph.target(e);
+                long candidate = dist[x] + weights[e];
+                if (candidate < dist[y]) {
+                    dist[y] = candidate;
+                    tree.parentEdge[y] = e;
+                    heap.pushOrDecrease(y, candidate);
+                }
+            }
+        }
+        lastTouched += changed;
+        return changed;
+    }
+
+    // Method to repair the subtree below the arc after its weight went up
+    private int increase(Tree tree, int edge) {
+        long[] dist = tree.dist;
+        int[] parentEdge = tree.parentEdge;
+        int v = graph.target(edge);
+        if (parentEdge[v] != edge) {
+            return 0;
+        }
+        nextStamp();
+        affected.clear();
+        heap.clear();
+
+        // Find the vertices that lost every shortest path, in order of their old distance
+        heap.push(v, dist[v]);
+        candidateStamp[v] = stamp;
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            lastTouched++;
+            int alternative = -1;
+            for (int r = reverseOffsets[x], end = reverseOffsets[x + 1]; r < end && alternative < 0; r++) {
+                int e = reverseEdges[r];
+                int p = tails[e];
+                // A positive arc from an equally short, unaffected vertex cannot come from below x
+                if (e != parentEdge[x] && affectedStamp[p] != stamp && weights[e] > 0
+                        && dist[p] != DijkstraEngine.UNREACHABLE && dist[p] + weights[e] == dist[x]) {
+                    alternative = e;
+                }
+            }
+            if (alternative >= 0) {
+                parentEdge[x] = alternative;
+                continue;
+            }
+            affectedStamp[x] = stamp;
+            affected.add(x);
+            for (int e = graph.firstEdge(x), end = graph.endEdge(x); e < end; e++) {
+                int y = graph.target(e);
+                if (parentEdge[y] == e && candidateStamp[y] != stamp) {
+                    candidateStamp[y] = stamp;
+                    heap.push(y, dist[y]);
+                }
+            }
+        }
+
+        // Seed the affected vertices from their unaffected in-neighbours, then settle them
+        for (int i = 0; i < affected.size(); i++) {
+            int x = affected.get(i);
+            previousDistance[x] = dist[x];
+            dist[x] = DijkstraEngine.UNREACHABLE;
+            parentEdge[x] = -1;
+        }
+        for (int i = 0; i < affected.size(); i++) {
+            int x = affected.get(i);
+            for (int r = reverseOffsets[x], end = reverseOffsets[x + 1]; r < end; r++) {
+                int e = reverseEdges[r];
+                int p = tails[e];
+                if (affectedStamp[p] != stamp && dist[p] != DijkstraEngine.UNREACHABLE && dist[p] + weights[e] < dist[x]) {
+                    dist[x] = dist[p] + weights[e];
+                    parentEdge[x] = e;
+                }
+            }
+            if (dist[x] != DijkstraEngine.UNREACHABLE) {
+                heap.push(x, dist[x]);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            for (int e = graph.firstEdge(x), end = graph.endEdge(x); e < end; e++) {
+                int y = graph.target(e);
+                long candidate = dist[x] + weights[e];
+                if (affectedStamp[y] == stamp && candidate < dist[y]) {
+                    dist[y] = candidate;
+                    parentEdge[y] = e;
+                    heap.pushOrDecrease(y, candidate);
+                }
+            }
+        }
+
+        int changed = 0;
+        for (int i = 0; i < affected.size(); i++) {
+            int x = affected.get(i);
+            if (dist[x] != previousDistance[x]) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            // The stamp wrapped around, so old marks could look current again
+            Arrays.fill(candidateStamp, 0);
+            Arrays.fill(affectedStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    // Shortest-path tree of one source: distances and the arc into every reached vertex
+    private class Tree {
+        final long[] dist;
+        final int[] parentEdge; // -1 for the source and for unreachable vertices
+
+        Tree(int source) {
+            int n = graph.vertexCount();
+            dist = new long[n];
+            parentEdge = new int[n];
+            Arrays.fill(dist, DijkstraEngine.UNREACHABLE);
+            Arrays.fill(parentEdge, -1);
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            dist[source] = 0;
+            queue.push(source, 0);
+            while (!queue.isEmpty()) {
+                int x = queue.poll();
+                for (int e = graph.firstEdge(x), end = graph.endEdge(x); e < end; e++) {
+                    int y = graph.target(e);
+                    long candidate = dist[x] + weights[e];
+                    if (candidate < dist[y]) {
+                        dist[y] = candidate;
+                        parentEdge[y] = e;
+                        queue.pushOrDecrease(y, candidate);
+                    }
+                }
+            }
+        }
+    }
+}
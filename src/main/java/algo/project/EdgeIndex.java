@@ -0,0 +1,76 @@
+package algo.project;
+
+import java.util.Arrays;
+
+// Hash index from (from, to) handle pairs to the cheapest arc between them in a CompactGraph.
+// Keys are packed into one long and stored with open addressing and linear probing in primitive
+// arrays, so a lookup is O(1) and allocates nothing, unlike scanning the arcs of the tail vertex.
+public class EdgeIndex {
+
+    private static final long EMPTY = -1L; // packed keys of valid handles are never negative
+
+    private final CompactGraph graph;
+    private final long[] keys;
+    private final int[] edges;
+    private final int mask;
+    private final int size;
+
+    // Constructor to index every arc of the graph
+    public EdgeIndex(CompactGraph graph) {
+        this.graph = graph;
+        int capacity = Integer.highestOneBit(Math.max(4, graph.edgeCount() * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.edges = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+        int distinct = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                long key = pack(v, graph.target(e));
+                int slot = slotOf(key);
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    edges[slot] = e;
+                    distinct++;
+                } else if (graph.weight(e) < graph.weight(edges[slot])) {
+                    // Parallel arcs: keep the cheapest one
+                    edges[slot] = e;
+                }
+            }
+        }
+        this.size = distinct;
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    // Number of distinct (from, to) pairs with at least one arc
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int from, int to) {
+        return keys[slotOf(pack(from, to))] != EMPTY;
+    }
+
+    // Method to get the position of the cheapest arc from one handle to another, or -1
+    public int find(int from, int to) {
+        int slot = slotOf(pack(from, to));
+        return keys[slot] == EMPTY ? -1 : edges[slot];
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    // Method to find the slot holding the key, or the empty slot where it would go
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,252 @@
+package algo.project;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregated query measurements of one engine: totals of the search counters, a latency histogram,
+// and the listeners that see every query. Recording is off by default. The engines always count
+// settled vertices, scanned arcs and heap operations in their search state, which costs a few int
+// increments; only when recording is on are the clocks read, the totals updated and the listeners
+// called, and none of that allocates either. The metrics can be published as a JMX MBean.
+public class EngineMetrics implements EngineMetricsMBean {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final String engine;
+    private volatile boolean enabled;
+    private volatile QueryListener[] listeners = new QueryListener[0];
+    private final ThreadLocal<QueryStats> current = ThreadLocal.withInitial(QueryStats::new);
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder verticesSettled = new LongAdder();
+    private final LongAdder edgesRelaxed = new LongAdder();
+    private final LongAdder heapPushes = new LongAdder();
+    private final LongAdder decreaseKeys = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private ObjectName objectName;
+
+    // Constructor for the metrics of the named engine
+    public EngineMetrics(String engine) {
+        this.engine = engine;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getEngine() {
+        return engine;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Method to add a listener that is called after every recorded query
+    public synchronized void addListener(QueryListener listener) {
+        QueryListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(QueryListener listener) {
+        QueryListener[] old = listeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                QueryListener[] updated = Arrays.copyOf(old, old.length - 1);
+                System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    // Method to start measuring a query on the calling thread; returns null when recording is off
+    QueryStats begin() {
+        if (!enabled) {
+            return null;
+        }
+        QueryStats stats = current.get();
+        stats.verticesSettled = 0;
+        stats.edgesRelaxed = 0;
+        stats.heapPushes = 0;
+        stats.decreaseKeys = 0;
+        stats.startAllocatedBytes = allocatedBytesOfThread();
+        stats.startNanos = System.nanoTime();
+        return stats;
+    }
+
+    // Method to finish a query measured with begin, taking the counters from its search state
+    void end(QueryStats stats, int source, int target, long distance, SearchState state) {
+        stats.add(state);
+        record(stats, source, target, distance);
+    }
+
+    // Method to finish a query whose search used one state in each direction
+    void end(QueryStats stats, int source, int target, long distance, SearchState forward, SearchState backward) {
+        stats.add(forward);
+        stats.add(backward);
+        record(stats, source, target, distance);
+    }
+
+    private void record(QueryStats stats, int source, int target, long distance) {
+        stats.nanos = System.nanoTime() - stats.startNanos;
+        long allocatedAfter = allocatedBytesOfThread();
+        stats.allocatedBytes = allocatedAfter < 0 || stats.startAllocatedBytes < 0 ? -1 : allocatedAfter - stats.startAllocatedBytes;
+        stats.engine = engine;
+        stats.source = source;
+        stats.target = target;
+        stats.distance = distance;
+
+        queries.increment();
+        verticesSettled.add(stats.verticesSettled);
+        edgesRelaxed.add(stats.edgesRelaxed);
+        heapPushes.add(stats.heapPushes);
+        decreaseKeys.add(stats.decreaseKeys);
+        if (stats.allocatedBytes > 0) {
+            allocatedBytes.add(stats.allocatedBytes);
+        }
+        latency.record(stats.nanos);
+        for (QueryListener listener : listeners) {
+            listener.queryCompleted(stats);
+        }
+    }
+
+    private static long allocatedBytesOfThread() {
+        return THREADS != null && THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    // Latency histogram of the recorded queries, in nanoseconds
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getVerticesSettled() {
+        return verticesSettled.sum();
+    }
+
+    @Override
+    public long getEdgesRelaxed() {
+        return edgesRelaxed.sum();
+    }
+
+    @Override
+    public long getHeapPushes() {
+        return heapPushes.sum();
+    }
+
+    @Override
+    public long getDecreaseKeys() {
+        return decreaseKeys.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public double getLatencyMeanMicros() {
+        return latency.getMean() / 1000;
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latency.valueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP90Micros() {
+        return latency.valueAtPercentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latency.valueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latency.valueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMaxMicros() {
+        return latency.getMax() / 1000.0;
+    }
+
+    // Method to clear the totals and the histogram
+    @Override
+    public void reset() {
+        queries.reset();
+        verticesSettled.reset();
+        edgesRelaxed.reset();
+        heapPushes.reset();
+        decreaseKeys.reset();
+        allocatedBytes.reset();
+        latency.reset();
+    }
+
+    // Method to publish the metrics on the platform MBean server under the engine name
+    public ObjectName register() {
+        return register(engine);
+    }
+
+    // Method to publish the metrics on the platform MBean server as
+    // algo.project:type=EngineMetrics,name=<name>; registering again replaces the previous name
+    public synchronized ObjectName register(String name) {
+        unregister();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName newName = new ObjectName("algo.project:type=EngineMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, newName);
+            objectName = newName;
+            return newName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the metrics of " + name + " with JMX", e);
+        }
+    }
+
+    // Method to remove the metrics from the platform MBean server, if they were registered
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            // Already unregistered by someone else
+        }
+        objectName = null;
+    }
+
+    @Override
+    public String toString() {
+        return "EngineMetrics(" + engine + ", " + getQueryCount() + " queries, settled " + getVerticesSettled()
+                + ", relaxed " + getEdgesRelaxed() + ", " + latency + ")";
+    }
+}
@@ -0,0 +1,37 @@
+package algo.project;
+
+// JMX view of EngineMetrics; latencies are in microseconds
+public interface EngineMetricsMBean {
+
+    String getEngine();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getQueryCount();
+
+    long getVerticesSettled();
+
+    long getEdgesRelaxed();
+
+    long getHeapPushes();
+
+    long getDecreaseKeys();
+
+    long getAllocatedBytes();
+
+    double getLatencyMeanMicros();
+
+    double getLatencyP50Micros();
+
+    double getLatencyP90Micros();
+
+    double getLatencyP99Micros();
+
+    double getLatencyP999Micros();
+
+    double getLatencyMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,142 @@
+package algo.project;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Builds a road-like graph from coordinates instead of the fixed 10x10 grid of PositiveGraph.
+// Every point is connected to its k nearest neighbours, or to all points within a radius, using a
+// KdTree, so construction is O(n log n) rather than an all-pairs scan. Arcs go both ways and weigh
+// the haversine distance in meters rounded up, which keeps the haversine distance a lower bound
+// on every path for goal-directed searches.
+public class GeoGraphBuilder {
+
+    // Neighbour searches are handed to the pool in blocks of this many points
+    private static final int BLOCK_SIZE = 4096;
+
+    private final GeoPointSet points;
+    private final Vertex[] vertices;
+    private final ForkJoinPool pool;
+    private KdTree tree;
+
+    // Constructor for vertices whose coordinates are the points with the same index
+    public GeoGraphBuilder(GeoPointSet points, Vertex[] vertices) {
+        this(points, vertices, ForkJoinPool.commonPool());
+    }
+
+    // Constructor running the neighbour searches on the given pool
+    public GeoGraphBuilder(GeoPointSet points, Vertex[] vertices, ForkJoinPool pool) {
+        if (points.size() != vertices.length) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + vertices.length + " vertices");
+        }
+        this.points = points;
+        this.vertices = vertices;
+        this.pool = pool;
+    }
+
+    // Method to name the points loaded by TaxiTripReader.readPoints the way PositiveGraph does:
+    // point 2i is "Pickup<i+1>" and point 2i+1 is "Dropoff<i+1>"
+    public static Vertex[] tripVertices(GeoPointSet points) {
+        Vertex[] vertices = new Vertex[points.size()];
+        for (int i = 0; i < vertices.length; i++) {
+            String type = (i % 2 == 0 ? VertexType.PICKUP : VertexType.DROPOFF).getLabel();
+            String label = String.format("%s(%.3f,%.3f)", type, points.latitude(i), points.longitude(i));
+            vertices[i] = new Vertex(type + (i / 2 + 1), label, type);
+        }
+        return vertices;
+    }
+
+    public GeoPointSet getPoints() {
+        return points;
+    }
+
+    // Method to get the spatial index, building it on first use
+    public KdTree getTree() {
+        if (tree == null) {
+            tree = new KdTree(points, pool);
+        }
+        return tree;
+    }
+
+    // Method to weigh the arc between two points: the haversine distance in meters, rounded up
+    public int weight(int from, int to) {
+        return (int) Math.ceil(points.haversineMeters(from, to));
+    }
+
+    // Method to connect every point with its k nearest neighbours in both directions
+    public CompactGraph buildKNearest(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1, got " + k);
+        }
+        KdTree index = getTree();
+        int n = points.size();
+        int[] neighbours = new int[n * k];
+        int[] counts = new int[n];
+        pool.submit(() -> IntStream.range(0, (n + BLOCK_SIZE - 1) / BLOCK_SIZE).parallel().forEach(block -> {
+            int[] found = new int[k];
+            double[] scratch = new double[k];
+            for (int p = block * BLOCK_SIZE, end = Math.min(n, p + BLOCK_SIZE); p < end; p++) {
+                counts[p] = index.nearest(p, k, found, scratch);
+                System.arraycopy(found, 0, neighbours, p * k, counts[p]);
+            }
+        })).join();
+
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertices);
+        for (int p = 0; p < n; p++) {
+            for (int i = 0; i < counts[p]; i++) {
+                int q = neighbours[p * k + i];
+                int weight = weight(p, q);
+                builder.addEdge(p, q, weight);
+                // Add the reverse arc unless q lists p too and adds it itself
+                if (!contains(neighbours, q * k, counts[q], p)) {
+                    builder.addEdge(q, p, weight);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // Method to connect every pair of points that are at most radiusMeters apart
+    public CompactGraph buildWithinRadius(double radiusMeters) {
+        KdTree index = getTree();
+        int n = points.size();
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntList[] blockTargets = new IntList[blocks];
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            // Per point: the neighbour count followed by the neighbours
+            IntList out = new IntList();
+            IntList found = new IntList();
+            for (int p = block * BLOCK_SIZE, end = Math.min(n, p + BLOCK_SIZE); p < end; p++) {
+                found.clear();
+                index.withinRadius(p, radiusMeters, found);
+                out.add(found.size());
+                out.addAll(found);
+            }
+            blockTargets[block] = out;
+        })).join();
+
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertices);
+        for (int block = 0; block < blocks; block++) {
+            IntList out = blockTargets[block];
+            int position = 0;
+            for (int p = block * BLOCK_SIZE, end = Math.min(n, p + BLOCK_SIZE); p < end; p++) {
+                int count = out.get(position++);
+                for (int i = 0; i < count; i++) {
+                    int q = out.get(position++);
+                    // The radius relation is symmetric, so q adds the reverse arc itself
+                    builder.addEdge(p, q, weight(p, q));
+                }
+            }
+            blockTargets[block] = null;
+        }
+        return builder.build();
+    }
+
+    private static boolean contains(int[] values, int from, int count, int value) {
+        for (int i = from; i < from + count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
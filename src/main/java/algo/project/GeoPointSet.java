@@ -0,0 +1,103 @@
+package algo.project;
+
+import java.util.Arrays;
+
+// Longitude/latitude pairs stored in two primitive arrays, indexed like vertex handles.
+// Loaders write points here instead of formatting them into vertex labels, so the coordinates
+// stay available for spatial indexing, distance bounds and drawing.
+public class GeoPointSet {
+
+    // Mean Earth radius used by the haversine distance
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private double[] longitudes;
+    private double[] latitudes;
+    private int size;
+
+    // Constructor to create an empty set with room for the given number of points
+    public GeoPointSet(int capacity) {
+        this.longitudes = new double[capacity];
+        this.latitudes = new double[capacity];
+    }
+
+    // Constructor to wrap existing coordinate arrays of the same length
+    public GeoPointSet(double[] longitudes, double[] latitudes) {
+        if (longitudes.length != latitudes.length) {
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes and " + latitudes.length + " latitudes");
+        }
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        this.size = longitudes.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    // Method to append a point and return its index
+    public int add(double longitude, double latitude) {
+        if (size == longitudes.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+        }
+        longitudes[size] = longitude;
+        latitudes[size] = latitude;
+        return size++;
+    }
+
+    // Method to overwrite an existing point; threads may fill disjoint slots concurrently
+    public void set(int index, double longitude, double latitude) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        longitudes[index] = longitude;
+        latitudes[index] = latitude;
+    }
+
+    // Method to make every slot up to the capacity usable, before threads fill them with set()
+    void growToCapacity() {
+        size = longitudes.length;
+    }
+
+    // Method to drop the points whose coordinates are NaN, keeping the order of the others
+    public void removeMissing() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(longitudes[i]) && !Double.isNaN(latitudes[i])) {
+                longitudes[kept] = longitudes[i];
+                latitudes[kept] = latitudes[i];
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    // Method to get the great-circle distance in meters between two points of the set
+    public double haversineMeters(int a, int b) {
+        return haversineMeters(longitudes[a], latitudes[a], longitudes[b], latitudes[b]);
+    }
+
+    // Method to get the great-circle distance in meters between two coordinates
+    public static double haversineMeters(double lon1, double lat1, double lon2, double lat2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinHalfDLat = Math.sin((phi2 - phi1) / 2);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double h = sinHalfDLat * sinHalfDLat + Math.cos(phi1) * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    @Override
+    public String toString() {
+        return "GeoPointSet(" + size + " points)";
+    }
+}
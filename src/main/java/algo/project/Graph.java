@@ -5,16 +5,42 @@ import java.util.*;
 public class Graph {
     // Map to store the adjacency list of the graph
     private Map<Vertex, List<Edge>> adjacencyList;
+    // Registry that interns vertex IDs to dense handles in insertion order
+    private VertexRegistry registry;
+    // Counter that changes on every mutation, so caches can tell their results are stale
+    private volatile long version;
 
     // Constructor to initialize the graph
     public Graph() {
         this.adjacencyList = new HashMap<>();
+        this.registry = new VertexRegistry();
     }
 
     // Method to add a vertex to the graph
     public void addVertex(Vertex vertex) {
         // Add the vertex to the adjacency list if it's not already present
-        adjacencyList.putIfAbsent(vertex, new ArrayList<>());
+        if (adjacencyList.putIfAbsent(vertex, new ArrayList<>()) == null) {
+            registry.intern(vertex);
+            version++;
+        }
+    }
+
+    // Method to add a vertex by its fields, or get the existing vertex with the same ID
+    public Vertex addVertex(String id, String name, String type) {
+        Vertex vertex = registry.vertexAt(registry.intern(id, name, type));
+        addVertex(vertex);
+        return vertex;
+    }
+
+    // Method to find a vertex by its ID in O(1), or null if there is none
+    public Vertex getVertex(String id) {
+        int handle = registry.indexOf(id);
+        return handle < 0 ? null : registry.vertexAt(handle);
+    }
+
+    // Registry of the vertices; handle order is the order in which they were added
+    public VertexRegistry getRegistry() {
+        return registry;
     }
 
     // Method to add an edge between two vertices
@@ -24,28 +50,44 @@ public class Graph {
         addVertex(toVertex);
         // Add the edge from fromVertex to toVertex with the given weight
         adjacencyList.get(fromVertex).add(new Edge(fromVertex, toVertex, weight));
+        version++;
+    }
+
+    // Method to get the mutation counter; it only grows, and equal values mean an unchanged graph
+    public long getVersion() {
+        return version;
     }
 
     // Method to get all vertices in the graph
     public List<Vertex> getVertices() {
-        // Return a list of all vertices from the keys of the adjacency list
-        return new ArrayList<>(adjacencyList.keySet());
+        // Return a list of all vertices in the order they were added
+        return registry.getVertices();
     }
 
     // Method to get all edges associated with a given vertex
     public List<Edge> getEdges(Vertex vertex) {
         // Return the list of edges for the vertex, or an empty list if the vertex is not found
-        return adjacencyList.getOrDefault(vertex, new ArrayList<>());
+        return adjacencyList.getOrDefault(vertex, Collections.emptyList());
     }
 
     // Method to check if there is an edge from a given vertex to another vertex
     public boolean checkEdgeExistence(Vertex from, Vertex to) {
         // Check if there is any edge from 'from' vertex to 'to' vertex
-        return adjacencyList.getOrDefault(from, new ArrayList<>())
+        return adjacencyList.getOrDefault(from, Collections.emptyList())
                 .stream()
                 .anyMatch(edge -> edge.getToVertex().equals(to));
     }
 
+    // Method to freeze the graph into its compact CSR form for querying
+    public CompactGraph toCompactGraph() {
+        return CompactGraph.fromGraph(this);
+    }
+
+    // Method to freeze the graph into a graph that can be updated while it is being queried
+    public ConcurrentGraph toConcurrentGraph() {
+        return new ConcurrentGraph(this);
+    }
+
     // Method to get a string representation of the graph
     @Override
     public String toString() {
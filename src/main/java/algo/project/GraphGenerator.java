@@ -0,0 +1,337 @@
+package algo.project;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Seeded generator of synthetic graphs for load and regression testing.
+// Every family is a pure function of the seed and its parameters: coordinates, weights and the
+// choice of arcs come from a hash of (seed, element) or from one SplittableRandom per block of
+// source vertices, so the result does not depend on the pool size or the order the blocks run in.
+// Arcs are written straight into the CSR arrays in two passes over the vertices, the first to
+// count the out-degrees and the second to fill the arcs in, so no arc list is ever buffered.
+public class GraphGenerator {
+
+    // Vertices are handed to the pool in blocks of this many
+    private static final int BLOCK_SIZE = 4096;
+
+    // Bounding box of the taxi trips, used for random points
+    private static final double MIN_LONGITUDE = -74.05;
+    private static final double MAX_LONGITUDE = -73.75;
+    private static final double MIN_LATITUDE = 40.60;
+    private static final double MAX_LATITUDE = 40.90;
+    private static final double METERS_PER_DEGREE = GeoPointSet.EARTH_RADIUS_METERS * Math.PI / 180;
+
+    // Road-like graphs keep this share of the lattice streets that are not needed for connectivity,
+    // and add a diagonal to this share of the lattice cells
+    private static final double ROAD_KEEP_PROBABILITY = 0.75;
+    private static final double ROAD_DIAGONAL_PROBABILITY = 0.1;
+
+    // Salts that keep the hashed decisions of different properties independent
+    private static final long SALT_WEIGHT = 1;
+    private static final long SALT_LONGITUDE = 2;
+    private static final long SALT_LATITUDE = 3;
+    private static final long SALT_TREE = 4;
+    private static final long SALT_KEEP = 5;
+    private static final long SALT_DIAGONAL = 6;
+    private static final long SALT_DIAGONAL_SIDE = 7;
+    private static final long SALT_POTENTIAL = 8;
+
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    // Constructor for a generator running on the common pool
+    public GraphGenerator(long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    // Constructor for a generator running on the given pool
+    public GraphGenerator(long seed, ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Method to create n vertices named like the trip vertices of GeoGraphBuilder: "Pickup<i>" and
+    // "Dropoff<i>" alternately, with the last two being "Garage1" and "Garage2" when n is at least 4.
+    // Names are the IDs themselves, which keeps multi-million-vertex graphs small.
+    public static Vertex[] vertices(int n) {
+        Vertex[] vertices = new Vertex[n];
+        int garageStart = n >= 4 ? n - 2 : n;
+        IntStream.range(0, n).parallel().forEach(i -> {
+            String type = i >= garageStart ? VertexType.GARAGE.getLabel()
+                    : (i % 2 == 0 ? VertexType.PICKUP : VertexType.DROPOFF).getLabel();
+            String id = type + (i >= garageStart ? i - garageStart + 1 : i / 2 + 1);
+            vertices[i] = new Vertex(id, id, type);
+        });
+        return vertices;
+    }
+
+    // Method to create n points spread uniformly over the area of the taxi trips
+    public GeoPointSet randomPoints(int n) {
+        double[] longitudes = new double[n];
+        double[] latitudes = new double[n];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+            longitudes[i] = MIN_LONGITUDE + unit(i, SALT_LONGITUDE) * (MAX_LONGITUDE - MIN_LONGITUDE);
+            latitudes[i] = MIN_LATITUDE + unit(i, SALT_LATITUDE) * (MAX_LATITUDE - MIN_LATITUDE);
+        })).join();
+        return new GeoPointSet(longitudes, latitudes);
+    }
+
+    // Method to create a rows x cols lattice of points about spacingMeters apart, starting at the
+    // south-west corner of the taxi area. Each point is moved by up to 30% of the spacing in each
+    // direction, so streets are not perfectly straight. Point r * cols + c is row r, column c.
+    public GeoPointSet latticePoints(int rows, int cols, double spacingMeters) {
+        int n = checkedSize(rows, cols);
+        double latitudeStep = spacingMeters / METERS_PER_DEGREE;
+        double longitudeStep = latitudeStep / Math.cos(Math.toRadians(MIN_LATITUDE));
+        double[] longitudes = new double[n];
+        double[] latitudes = new double[n];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+            double column = i % cols + 0.6 * (unit(i, SALT_LONGITUDE) - 0.5);
+            double row = i / cols + 0.6 * (unit(i, SALT_LATITUDE) - 0.5);
+            longitudes[i] = MIN_LONGITUDE + column * longitudeStep;
+            latitudes[i] = MIN_LATITUDE + row * latitudeStep;
+        })).join();
+        return new GeoPointSet(longitudes, latitudes);
+    }
+
+    // Method to generate a rows x cols grid where every vertex has arcs to and from its 4 neighbours.
+    // Both arcs of a street get the same weight, uniform in minWeight..maxWeight.
+    // The fixed grid of PositiveGraph is the 10 x 10 case with weights 80..100, but one-way.
+    public CompactGraph grid(int rows, int cols, int minWeight, int maxWeight) {
+        int n = checkedSize(rows, cols);
+        int range = checkedRange(minWeight, maxWeight);
+        return generate(vertices(n), (v, random, sink) -> {
+            int r = v / cols;
+            int c = v % cols;
+            // Street keys: 2v for the street to the right of v, 2v + 1 for the street below v
+            if (c > 0) {
+                sink.arc(v - 1, minWeight + uniform(2L * (v - 1), SALT_WEIGHT, range));
+            }
+            if (c < cols - 1) {
+                sink.arc(v + 1, minWeight + uniform(2L * v, SALT_WEIGHT, range));
+            }
+            if (r > 0) {
+                sink.arc(v - cols, minWeight + uniform(2L * (v - cols) + 1, SALT_WEIGHT, range));
+            }
+            if (r < rows - 1) {
+                sink.arc(v + cols, minWeight + uniform(2L * v + 1, SALT_WEIGHT, range));
+            }
+        });
+    }
+
+    // Method to generate a random geometric graph: every pair of points at most radiusMeters apart
+    // is connected both ways with its haversine distance in meters, as GeoGraphBuilder does
+    public CompactGraph randomGeometric(GeoPointSet points, double radiusMeters) {
+        return new GeoGraphBuilder(points, vertices(points.size()), pool).buildWithinRadius(radiusMeters);
+    }
+
+    // Method to generate a planar road-like graph on a lattice from latticePoints(rows, cols, ...).
+    // A random spanning tree of the lattice keeps the graph connected, the remaining streets are
+    // kept with probability 0.75, and some cells get one diagonal, which cannot cross another street.
+    // Streets go both ways and weigh the haversine distance times a detour factor in [1, 1.5),
+    // rounded up, so the haversine distance stays a lower bound for A*.
+    public CompactGraph roadLike(GeoPointSet lattice, int rows, int cols) {
+        int n = checkedSize(rows, cols);
+        if (lattice.size() != n) {
+            throw new IllegalArgumentException("Got " + lattice.size() + " points for a " + rows + " x " + cols + " lattice");
+        }
+        return generate(vertices(n), (v, random, sink) -> {
+            int r = v / cols;
+            int c = v % cols;
+            if (c > 0 && hasStreet(v - 1, v, rows, cols)) {
+                sink.arc(v - 1, roadWeight(lattice, v, v - 1));
+            }
+            if (c < cols - 1 && hasStreet(v, v + 1, rows, cols)) {
+                sink.arc(v + 1, roadWeight(lattice, v, v + 1));
+            }
+            if (r > 0 && hasStreet(v - cols, v, rows, cols)) {
+                sink.arc(v - cols, roadWeight(lattice, v, v - cols));
+            }
+            if (r < rows - 1 && hasStreet(v, v + cols, rows, cols)) {
+                sink.arc(v + cols, roadWeight(lattice, v, v + cols));
+            }
+            // Diagonals of the up to 4 cells around v, named by their top-left vertex
+            if (r < rows - 1 && c < cols - 1 && diagonal(v) == 1) {
+                sink.arc(v + cols + 1, roadWeight(lattice, v, v + cols + 1));
+            }
+            if (r < rows - 1 && c > 0 && diagonal(v - 1) == 2) {
+                sink.arc(v + cols - 1, roadWeight(lattice, v, v + cols - 1));
+            }
+            if (r > 0 && c < cols - 1 && diagonal(v - cols) == 2) {
+                sink.arc(v - cols + 1, roadWeight(lattice, v, v - cols + 1));
+            }
+            if (r > 0 && c > 0 && diagonal(v - cols - 1) == 1) {
+                sink.arc(v - cols - 1, roadWeight(lattice, v, v - cols - 1));
+            }
+        });
+    }
+
+    // Method to generate a dense directed graph where each ordered pair of distinct vertices has an
+    // arc with probability arcProbability, and about negativeFraction of the arcs are negative.
+    // Weights are w = r + h(v) - h(u) with r >= 0 and a hashed potential h in 0..maxWeight-1, so every
+    // cycle weighs the sum of its r and none is negative. Only arcs going down in potential can be
+    // negative, about half of them, so fractions above 0.5 are capped there. With negativeCycle set,
+    // the arcs 0 -> 1 -> 2 -> 0 of weight -1 are added on top, which plants a negative cycle.
+    public CompactGraph dense(int n, double arcProbability, int maxWeight, double negativeFraction, boolean negativeCycle) {
+        if (arcProbability < 0 || arcProbability > 1) {
+            throw new IllegalArgumentException("Arc probability must be in [0, 1], got " + arcProbability);
+        }
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Max weight must be at least 1, got " + maxWeight);
+        }
+        if (negativeCycle && n < 3) {
+            throw new IllegalArgumentException("A negative cycle needs at least 3 vertices, got " + n);
+        }
+        double negativeProbability = Math.min(1.0, 2 * negativeFraction);
+        double logSkip = Math.log1p(-arcProbability);
+        return generate(vertices(n), (u, random, sink) -> {
+            if (arcProbability > 0) {
+                int potentialU = uniform(u, SALT_POTENTIAL, maxWeight);
+                // Skip ahead by geometrically distributed gaps instead of drawing once per pair
+                for (long v = nextGap(random, logSkip); v < n; v += 1 + nextGap(random, logSkip)) {
+                    if (v == u) {
+                        continue;
+                    }
+                    int gap = uniform(v, SALT_POTENTIAL, maxWeight) - potentialU;
+                    if (gap < 0 && random.nextDouble() < negativeProbability) {
+                        sink.arc((int) v, gap + random.nextInt(-gap));
+                    } else {
+                        sink.arc((int) v, Math.max(gap, 0) + 1 + random.nextInt(maxWeight));
+                    }
+                }
+            }
+            if (negativeCycle && u < 3) {
+                sink.arc((u + 1) % 3, -1);
+            }
+        });
+    }
+
+    // Source of the outgoing arcs of one vertex. It is called twice per vertex with a random seeded
+    // the same way and must emit the same arcs both times.
+    private interface ArcSource {
+        void emit(int vertex, SplittableRandom random, ArcSink sink);
+    }
+
+    private interface ArcSink {
+        void arc(int target, int weight);
+    }
+
+    // Method to run an arc source over all vertices, once to count the arcs and once to store them
+    private CompactGraph generate(Vertex[] vertices, ArcSource source) {
+        int n = vertices.length;
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] blockSeeds = new SplittableRandom(seed).longs(blocks).toArray();
+
+        int[] offsets = new int[n + 1];
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            SplittableRandom random = new SplittableRandom(blockSeeds[block]);
+            int[] count = new int[1];
+            ArcSink counter = (target, weight) -> count[0]++;
+            for (int v = block * BLOCK_SIZE, end = Math.min(n, v + BLOCK_SIZE); v < end; v++) {
+                count[0] = 0;
+                source.emit(v, random, counter);
+                offsets[v + 1] = count[0];
+            }
+        })).join();
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            total += offsets[v + 1];
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Generated graph has more than " + (Integer.MAX_VALUE - 8) + " arcs");
+            }
+            offsets[v + 1] = (int) total;
+        }
+
+        int[] targets = new int[(int) total];
+        int[] weights = new int[(int) total];
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            SplittableRandom random = new SplittableRandom(blockSeeds[block]);
+            int start = block * BLOCK_SIZE;
+            int[] position = {offsets[start]};
+            ArcSink filler = (target, weight) -> {
+                targets[position[0]] = target;
+                weights[position[0]] = weight;
+                position[0]++;
+            };
+            for (int v = start, end = Math.min(n, start + BLOCK_SIZE); v < end; v++) {
+                source.emit(v, random, filler);
+            }
+        })).join();
+        return CompactGraph.fromCsr(vertices, offsets, targets, weights);
+    }
+
+    // Method to check if the lattice street between a and b (right of or below a) is kept
+    private boolean hasStreet(int a, int b, int rows, int cols) {
+        boolean horizontal = b == a + 1;
+        // In the spanning tree every vertex but 0 is joined to its left or upper neighbour
+        int row = b / cols;
+        int column = b % cols;
+        boolean leftParent = row == 0 || (column > 0 && (hash(b, SALT_TREE) & 1) == 0);
+        if (horizontal == leftParent) {
+            return true;
+        }
+        return unit(2L * a + (horizontal ? 0 : 1), SALT_KEEP) < ROAD_KEEP_PROBABILITY;
+    }
+
+    // Method to get the diagonal of the cell with the given top-left vertex: 0 for none, 1 for
+    // top-left to bottom-right, 2 for top-right to bottom-left
+    private int diagonal(int cell) {
+        if (unit(cell, SALT_DIAGONAL) >= ROAD_DIAGONAL_PROBABILITY) {
+            return 0;
+        }
+        return 1 + (int) (hash(cell, SALT_DIAGONAL_SIDE) & 1);
+    }
+
+    private int roadWeight(GeoPointSet lattice, int a, int b) {
+        double detour = 1 + 0.5 * unit(Math.min(a, b) * 0x1_0000_0000L + Math.max(a, b), SALT_WEIGHT);
+        return (int) Math.ceil(lattice.haversineMeters(a, b) * detour);
+    }
+
+    // Method to draw the number of pairs skipped before the next arc
+    private static long nextGap(SplittableRandom random, double logSkip) {
+        if (logSkip == 0) {
+            return Long.MAX_VALUE / 2; // arc probability 0
+        }
+        return (long) (Math.log(1 - random.nextDouble()) / logSkip);
+    }
+
+    private long hash(long key, long salt) {
+        return mix64(seed ^ mix64(key * 0x9E3779B97F4A7C15L + salt));
+    }
+
+    // Method to hash a key to a double in [0, 1)
+    private double unit(long key, long salt) {
+        return (hash(key, salt) >>> 11) * 0x1.0p-53;
+    }
+
+    // Method to hash a key to an int in 0..bound-1
+    private int uniform(long key, long salt, int bound) {
+        return (int) (((hash(key, salt) >>> 33) * bound) >>> 31);
+    }
+
+    // Finalizer of SplittableRandom (Stafford variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int checkedSize(int rows, int cols) {
+        if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Cannot create a " + rows + " x " + cols + " lattice");
+        }
+        return rows * cols;
+    }
+
+    private static int checkedRange(int minWeight, int maxWeight) {
+        if (minWeight > maxWeight || (long) maxWeight - minWeight >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid weight range " + minWeight + ".." + maxWeight);
+        }
+        return maxWeight - minWeight + 1;
+    }
+}
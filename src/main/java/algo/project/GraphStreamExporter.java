@@ -0,0 +1,316 @@
+package algo.project;
+
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.stream.SourceBase;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Streams a chosen part of a large graph into GraphStream through its sink API.
+// Copying a whole graph into a GraphStream graph keeps it twice in memory and makes the viewer lay
+// out every vertex, which stops working past a few thousand vertices. This source sends node and
+// edge events for one selection only: a path with its k-hop neighbourhood, a random sample of
+// vertices, or an overview where the vertices of each grid cell become one node. The events go to
+// every sink added with addSink, for example a graph made by newGraph, a file sink or a remote
+// pipe, and nothing but the selection is ever built on the GraphStream side. Edge IDs are the arc
+// positions, so they are unique without building strings per pair or checking for duplicates.
+// With vertex coordinates, nodes get an "xyz" attribute and can be shown without automatic layout.
+public class GraphStreamExporter extends SourceBase {
+
+    private static final String STYLESHEET = "node { size: 6px; fill-color: #555; text-size: 10; }"
+            + " node.path { size: 10px; fill-color: #d22; }"
+            + " node.cluster { fill-color: #36c; size-mode: dyn-size; }"
+            + " edge { fill-color: #999; text-size: 9; }"
+            + " edge.path { size: 3px; fill-color: #d22; }";
+
+    private final AdjacencyView graph;
+    private GeoPointSet points; // null without coordinates
+    private int defaultWeight = -1; // weight of path arcs the graph does not store, or -1 for none
+
+    // Constructor to export parts of the given graph
+    public GraphStreamExporter(AdjacencyView graph) {
+        super("export-" + System.identityHashCode(graph));
+        this.graph = graph;
+    }
+
+    // Method to place the nodes at the vertex coordinates, which the clustered overview requires
+    public GraphStreamExporter withPoints(GeoPointSet points) {
+        if (points.size() != graph.vertexCount()) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + graph.vertexCount() + " vertices");
+        }
+        this.points = points;
+        return this;
+    }
+
+    // Method to set the weight shown on path arcs that are not stored in the graph, such as the
+    // implicit arcs of a CompleteGraphView
+    public GraphStreamExporter withDefaultWeight(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+        return this;
+    }
+
+    // Method to create an empty GraphStream graph with the path and cluster styles that receives
+    // every event of this exporter
+    public org.graphstream.graph.Graph newGraph(String id) {
+        // A multigraph, because u -> v and v -> u are two arcs here
+        org.graphstream.graph.Graph gsGraph = new MultiGraph(id);
+        gsGraph.setAttribute("ui.stylesheet", STYLESHEET);
+        gsGraph.setAttribute("ui.quality");
+        addSink(gsGraph);
+        return gsGraph;
+    }
+
+    // Method to send a path of vertex handles, every vertex at most the given number of hops away
+    // from it along outgoing arcs, and all arcs between these vertices; the neighbourhood stops
+    // growing at maxVertices, the path itself is always sent. Returns the number of nodes sent.
+    public int pathNeighbourhood(int[] path, int hops, int maxVertices) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("Hop count must not be negative: " + hops);
+        }
+        BitSet selected = new BitSet(graph.vertexCount());
+        IntList order = new IntList();
+        for (int v : path) {
+            checkVertex(v);
+            if (!selected.get(v)) {
+                selected.set(v);
+                order.add(v);
+            }
+        }
+
+        // Breadth-first search level by level from all path vertices at once
+        IntList frontier = new IntList();
+        frontier.addAll(order);
+        IntList next = new IntList();
+        for (int hop = 0; hop < hops && !frontier.isEmpty() && order.size() < maxVertices; hop++) {
+            next.clear();
+            for (int i = 0; i < frontier.size() && order.size() < maxVertices; i++) {
+                int v = frontier.get(i);
+                for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end && order.size() < maxVertices; e++) {
+                    int w = graph.target(e);
+                    if (!selected.get(w)) {
+                        selected.set(w);
+                        order.add(w);
+                        next.add(w);
+                    }
+                }
+            }
+            IntList swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+
+        BitSet onPath = new BitSet(graph.vertexCount());
+        for (int v : path) {
+            onPath.set(v);
+        }
+        sendVertices(order, onPath);
+
+        // Path arcs first, so they keep the path style even where the neighbourhood has the same arc
+        BitSet pathArcs = new BitSet();
+        for (int i = 0; i + 1 < path.length; i++) {
+            int from = path[i];
+            int to = path[i + 1];
+            int edge = cheapestArc(from, to);
+            if (edge >= 0) {
+                if (!pathArcs.get(edge)) {
+                    pathArcs.set(edge);
+                    sendArc(edge, from, to, graph.weight(edge), true);
+                }
+            } else {
+                String edgeId = "p" + i;
+                sendEdgeAdded(sourceId, edgeId, nodeId(from), nodeId(to), true);
+                sendEdgeAttributeAdded(sourceId, edgeId, "ui.class", "path");
+                if (defaultWeight >= 0) {
+                    sendEdgeAttributeAdded(sourceId, edgeId, "weight", defaultWeight);
+                    sendEdgeAttributeAdded(sourceId, edgeId, "ui.label", defaultWeight);
+                }
+            }
+        }
+        sendInducedArcs(order, selected, pathArcs);
+        return order.size();
+    }
+
+    // Method to send up to count vertices picked uniformly at random and the arcs between them.
+    // Returns the number of nodes sent.
+    public int sample(int count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Sample size must not be negative: " + count);
+        }
+        int n = graph.vertexCount();
+        BitSet selected = new BitSet(n);
+        IntList order = new IntList(Math.min(count, n));
+        Random random = new Random(seed);
+        if (count >= n) {
+            for (int v = 0; v < n; v++) {
+                selected.set(v);
+                order.add(v);
+            }
+        } else {
+            // Floyd's sampling draws count distinct vertices with exactly count random numbers
+            for (int j = n - count; j < n; j++) {
+                int v = random.nextInt(j + 1);
+                if (selected.get(v)) {
+                    v = j;
+                }
+                selected.set(v);
+                order.add(v);
+            }
+        }
+        sendVertices(order, new BitSet());
+        sendInducedArcs(order, selected, new BitSet());
+        return order.size();
+    }
+
+    // Method to send an overview where each grid cell of the given size becomes one node, sized by its
+    // number of vertices and placed at their centroid, and the arcs between two cells become one edge
+    // carrying their count and smallest weight. Needs the vertex coordinates. Returns the number of nodes sent.
+    public int clusters(double cellMeters) {
+        if (points == null) {
+            throw new IllegalStateException("The clustered overview needs vertex coordinates, see withPoints");
+        }
+        if (!(cellMeters > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellMeters);
+        }
+        int n = graph.vertexCount();
+        double meanLatitude = 0;
+        for (int v = 0; v < n; v++) {
+            meanLatitude += points.latitude(v);
+        }
+        meanLatitude = n > 0 ? meanLatitude / n : 0;
+        double metersPerDegree = Math.toRadians(GeoPointSet.EARTH_RADIUS_METERS);
+        double lonStep = cellMeters / (metersPerDegree * Math.max(0.01, Math.cos(Math.toRadians(meanLatitude))));
+        double latStep = cellMeters / metersPerDegree;
+
+        // Number the non-empty cells densely; the only per-vertex state is the cluster of each vertex
+        Map<Long, Integer> cellIds = new HashMap<>();
+        int[] clusterOf = new int[n];
+        IntList sizes = new IntList();
+        double[] sums = new double[16];
+        for (int v = 0; v < n; v++) {
+            long cell = ((long) Math.floor(points.longitude(v) / lonStep) << 32)
+                    ^ ((long) Math.floor(points.latitude(v) / latStep) & 0xFFFFFFFFL);
+            Integer cluster = cellIds.get(cell);
+            if (cluster == null) {
+                cluster = sizes.size();
+                cellIds.put(cell, cluster);
+                sizes.add(0);
+                if (2 * sizes.size() > sums.length) {
+                    sums = Arrays.copyOf(sums, 2 * sums.length);
+                }
+            }
+            clusterOf[v] = cluster;
+            sizes.set(cluster, sizes.get(cluster) + 1);
+            sums[2 * cluster] += points.longitude(v);
+            sums[2 * cluster + 1] += points.latitude(v);
+        }
+
+        int clusterCount = sizes.size();
+        int largest = 1;
+        for (int c = 0; c < clusterCount; c++) {
+            largest = Math.max(largest, sizes.get(c));
+        }
+        for (int c = 0; c < clusterCount; c++) {
+            String id = "c" + c;
+            int size = sizes.get(c);
+            sendNodeAdded(sourceId, id);
+            sendNodeAttributeAdded(sourceId, id, "ui.class", "cluster");
+            sendNodeAttributeAdded(sourceId, id, "ui.label", size);
+            sendNodeAttributeAdded(sourceId, id, "size", size);
+            sendNodeAttributeAdded(sourceId, id, "ui.size", 6 + 24 * Math.sqrt((double) size / largest));
+            sendNodeAttributeAdded(sourceId, id, "xyz", new Object[]{sums[2 * c] / size, sums[2 * c + 1] / size, 0});
+        }
+
+        // Merge the arcs between each pair of clusters in both directions into one edge
+        Map<Long, long[]> links = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            int a = clusterOf[v];
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int b = clusterOf[graph.target(e)];
+                if (a == b) {
+                    continue;
+                }
+                long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+                long[] link = links.computeIfAbsent(key, k -> new long[]{0, Long.MAX_VALUE});
+                link[0]++;
+                link[1] = Math.min(link[1], graph.weight(e));
+            }
+        }
+        for (Map.Entry<Long, long[]> entry : links.entrySet()) {
+            int a = (int) (entry.getKey() >>> 32);
+            int b = (int) (long) entry.getKey();
+            String id = "c" + a + "-" + b;
+            sendEdgeAdded(sourceId, id, "c" + a, "c" + b, false);
+            sendEdgeAttributeAdded(sourceId, id, "count", entry.getValue()[0]);
+            sendEdgeAttributeAdded(sourceId, id, "weight", entry.getValue()[1]);
+        }
+        return clusterCount;
+    }
+
+    // Method to send the node events of the selected vertices
+    private void sendVertices(IntList order, BitSet onPath) {
+        for (int i = 0; i < order.size(); i++) {
+            int v = order.get(i);
+            String id = nodeId(v);
+            sendNodeAdded(sourceId, id);
+            Vertex vertex = graph.vertexAt(v);
+            if (vertex != null) {
+                sendNodeAttributeAdded(sourceId, id, "ui.label", vertex.getName());
+            }
+            if (onPath.get(v)) {
+                sendNodeAttributeAdded(sourceId, id, "ui.class", "path");
+            }
+            if (points != null) {
+                sendNodeAttributeAdded(sourceId, id, "xyz", new Object[]{points.longitude(v), points.latitude(v), 0});
+            }
+        }
+    }
+
+    // Method to send every arc between two selected vertices that was not sent already
+    private void sendInducedArcs(IntList order, BitSet selected, BitSet sent) {
+        for (int i = 0; i < order.size(); i++) {
+            int v = order.get(i);
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int w = graph.target(e);
+                if (selected.get(w) && !sent.get(e)) {
+                    sendArc(e, v, w, graph.weight(e), false);
+                }
+            }
+        }
+    }
+
+    private void sendArc(int edge, int from, int to, int weight, boolean onPath) {
+        String id = String.valueOf(edge);
+        sendEdgeAdded(sourceId, id, nodeId(from), nodeId(to), true);
+        sendEdgeAttributeAdded(sourceId, id, "weight", weight);
+        sendEdgeAttributeAdded(sourceId, id, "ui.label", weight);
+        if (onPath) {
+            sendEdgeAttributeAdded(sourceId, id, "ui.class", "path");
+        }
+    }
+
+    // Method to get the cheapest stored arc from one vertex to another, or -1
+    private int cheapestArc(int from, int to) {
+        int best = -1;
+        for (int e = graph.firstEdge(from), end = graph.endEdge(from); e < end; e++) {
+            if (graph.target(e) == to && (best < 0 || graph.weight(e) < graph.weight(best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    // Node IDs are the vertex IDs, as in the full GraphStream copies, so both views can be compared
+    private String nodeId(int v) {
+        Vertex vertex = graph.vertexAt(v);
+        return vertex != null ? vertex.getId() : String.valueOf(v);
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= graph.vertexCount()) {
+            throw new IllegalArgumentException("Vertex handle out of range: " + v);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package algo.project;
+
+import java.util.Arrays;
+
+// Binary min-heap over int items 0..capacity-1 keyed by long priorities.
+// Every item has a slot in the position array, so decrease-key updates the item in place
+// instead of pushing a duplicate entry, and no objects are created while the heap is used.
+public class IndexedMinHeap {
+    private int[] heap;     // heap[i] = item stored at heap index i
+    private int[] position; // position[item] = heap index of the item, or -1 if not in the heap
+    private long[] keys;    // keys[item] = current priority of the item
+    private int size;
+    private int pushes;       // pushes since the last clear
+    private int decreaseKeys; // decrease-key operations since the last clear
+
+    // Constructor to create a heap that can hold items 0..capacity-1
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    // Method to grow the heap so it can hold items 0..capacity-1
+    public void ensureCapacity(int capacity) {
+        if (capacity <= position.length) {
+            return;
+        }
+        int oldLength = position.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        position = Arrays.copyOf(position, capacity);
+        Arrays.fill(position, oldLength, capacity, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Number of items pushed since the heap was created or last cleared
+    public int pushCount() {
+        return pushes;
+    }
+
+    // Number of decrease-key operations since the heap was created or last cleared
+    public int decreaseKeyCount() {
+        return decreaseKeys;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    // Method to get the priority of an item currently in the heap
+    public long keyOf(int item) {
+        return keys[item];
+    }
+
+    // Method to insert an item that is not yet in the heap
+    public void push(int item, long key) {
+        keys[item] = key;
+        heap[size] = item;
+        position[item] = size;
+        pushes++;
+        siftUp(size++);
+    }
+
+    // Method to lower the priority of an item already in the heap
+    public void decreaseKey(int item, long key) {
+        keys[item] = key;
+        decreaseKeys++;
+        siftUp(position[item]);
+    }
+
+    // Method to insert the item, or lower its priority if it is already queued with a larger key
+    public boolean pushOrDecrease(int item, long key) {
+        if (position[item] < 0) {
+            push(item, key);
+            return true;
+        }
+        if (key < keys[item]) {
+            decreaseKey(item, key);
+            return true;
+        }
+        return false;
+    }
+
+    // Method to get the smallest priority without removing its item
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    // Method to get the item with the smallest priority without removing it
+    public int peek() {
+        return heap[0];
+    }
+
+    // Method to remove and return the item with the smallest priority
+    public int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Method to empty the heap and its operation counts; only the queued items are touched, so this is O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+        pushes = 0;
+        decreaseKeys = 0;
+    }
+
+    private void siftUp(int index) {
+        int item = heap[index];
+        long key = keys[item];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[index] = parent;
+            position[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+
+    private void siftDown(int index) {
+        int item = heap[index];
+        long key = keys[item];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+}
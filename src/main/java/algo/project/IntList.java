@@ -0,0 +1,81 @@
+package algo.project;
+
+import java.util.Arrays;
+
+// Growable list of primitive ints, used where an ArrayList<Integer> would box every element
+public class IntList {
+    private int[] elements;
+    private int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        this.elements = new int[Math.max(capacity, 4)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        elements[index] = value;
+    }
+
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1));
+        }
+        elements[size++] = value;
+    }
+
+    public void addAll(IntList other) {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(size + other.size, size + (size >> 1)));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    // Method to remove and return the last element
+    public int removeLast() {
+        return elements[--size];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Method to reverse the elements in place
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int tmp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = tmp;
+        }
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,299 @@
+package algo.project;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// All-pairs shortest paths for graphs with negative weights (Johnson's algorithm).
+// One Bellman-Ford run from a virtual source gives every vertex a potential h, and the arcs are
+// reweighted to w(u, v) + h(u) - h(v), which is never negative. The per-source Dijkstra searches on
+// the reweighted graph are independent, so they run in parallel on a fork-join pool and write
+// straight into a preallocated DistanceMatrix.
+// On a CompleteGraphView the implicit arcs are never built: the potentials come from the round-based
+// Bellman-Ford of the view, and each search takes the implicit arcs into a vertex from the closest
+// settled vertex without an explicit arc into it, as BellmanFordEngine does (see ImplicitSearch).
+public class JohnsonEngine {
+
+    private final CompactGraph graph;
+    private final CompleteGraphView complete; // null unless the graph has implicit arcs
+    private final BellmanFordEngine.Result potentials;
+    private final DijkstraEngine reweighted; // null on a CompleteGraphView
+    private final int[] byPotential; // vertices by decreasing potential, only on a CompleteGraphView
+    private final int closestLength; // largest explicit in-degree plus one
+    private final ThreadLocal<ImplicitSearch> implicitSearches;
+
+    // Constructor to freeze the graph into compact form for querying
+    public JohnsonEngine(Graph graph) {
+        this(CompactGraph.fromGraph(graph));
+    }
+
+    // Constructor that computes the potentials and the reweighted graph once
+    public JohnsonEngine(CompactGraph graph) {
+        this.graph = graph;
+        this.complete = null;
+        this.potentials = new BellmanFordEngine(graph).runFromAllVertices();
+        this.reweighted = potentials.hasNegativeCycle() ? null : new DijkstraEngine(reweight(graph, potentials.getDistances()));
+        this.byPotential = null;
+        this.closestLength = 0;
+        this.implicitSearches = null;
+    }
+
+    // Constructor for a complete graph whose default-weight arcs are implicit; neither the arcs nor
+    // a reweighted copy of them are ever stored
+    public JohnsonEngine(CompleteGraphView complete) {
+        this.graph = complete.getOverrides();
+        this.complete = complete;
+        this.potentials = new BellmanFordEngine(complete).runFromAllVertices();
+        this.reweighted = null;
+        int vertexCount = graph.vertexCount();
+        if (potentials.hasNegativeCycle()) {
+            this.byPotential = null;
+        } else {
+            long[] h = potentials.getDistances();
+            this.byPotential = IntStream.range(0, vertexCount).boxed()
+                    .sorted(Comparator.comparingLong((Integer v) -> h[v]).reversed())
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        int[] inDegree = new int[vertexCount];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            inDegree[graph.target(e)]++;
+        }
+        this.closestLength = Arrays.stream(inDegree).max().orElse(0) + 1;
+        this.implicitSearches = ThreadLocal.withInitial(() -> new ImplicitSearch(vertexCount));
+    }
+
+    // Method to give every arc the weight w(u, v) + h(u) - h(v)
+    private static CompactGraph reweight(CompactGraph graph, long[] h) {
+        int[] weights = new int[graph.edgeCount()];
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                long weight = graph.weight(e) + h[u] - h[graph.target(e)];
+                if (weight > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Reweighted arc " + u + " -> " + graph.target(e) + " overflows: " + weight);
+                }
+                weights[e] = (int) weight;
+            }
+        }
+        return graph.withWeights(weights);
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public boolean hasNegativeCycle() {
+        return potentials.hasNegativeCycle();
+    }
+
+    // Handles of a negative cycle, or null if the graph has none
+    public int[] getNegativeCycle() {
+        return potentials.getCycle();
+    }
+
+    // Method to compute the full distance table using every core
+    public DistanceMatrix allPairs() {
+        return allPairs(ForkJoinPool.commonPool());
+    }
+
+    // Method to compute the full distance table with a pool of the given size
+    public DistanceMatrix allPairs(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return allPairs(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Method to compute the full distance table on the given pool; rows and columns are vertex handles
+    public DistanceMatrix allPairs(ForkJoinPool pool) {
+        int vertexCount = graph.vertexCount();
+        DistanceMatrix matrix = new DistanceMatrix(vertexCount, vertexCount);
+        fill(matrix, pool);
+        return matrix;
+    }
+
+    // Method to fill a caller-allocated vertexCount x vertexCount matrix
+    public void fill(DistanceMatrix matrix, ForkJoinPool pool) {
+        if (potentials.hasNegativeCycle()) {
+            throw new IllegalStateException("Shortest paths are undefined: negative cycle " + potentials.getCycleVertices());
+        }
+        int vertexCount = graph.vertexCount();
+        if (matrix.rows() != vertexCount || matrix.cols() != vertexCount) {
+            throw new IllegalArgumentException("Expected a " + vertexCount + " x " + vertexCount + " matrix");
+        }
+        long[] h = potentials.getDistances();
+        if (complete != null) {
+            pool.submit(() -> IntStream.range(0, vertexCount).parallel().forEach(source -> {
+                long[] dist = implicitSearches.get().run(source, -1);
+                for (int v = 0; v < vertexCount; v++) {
+                    matrix.set(source, v, dist[v]);
+                }
+            })).join();
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, vertexCount).parallel().forEach(source -> {
+            SearchState state = reweighted.searchFrom(source);
+            for (int v = 0; v < vertexCount; v++) {
+                long d = state.distanceOf(v);
+                matrix.set(source, v, d == DijkstraEngine.UNREACHABLE ? d : d - h[source] + h[v]);
+            }
+        })).join();
+    }
+
+    // Method to get a single distance without building the whole table
+    public long distance(int source, int target) {
+        if (potentials.hasNegativeCycle()) {
+            throw new IllegalStateException("Shortest paths are undefined: negative cycle " + potentials.getCycleVertices());
+        }
+        if (complete != null) {
+            return implicitSearches.get().run(source, target)[target];
+        }
+        long d = reweighted.distance(source, target);
+        long[] h = potentials.getDistances();
+        return d == DijkstraEngine.UNREACHABLE ? d : d - h[source] + h[target];
+    }
+
+    // One Dijkstra search on the reweighted CompleteGraphView. Labels are true distances t(v), and the
+    // heap key t(v) - h(v) orders vertices like the reweighted distance. The best implicit arc into v
+    // comes from the settled vertex of smallest t without an explicit arc into v. For most vertices
+    // that is the closest settled vertex, the hub, so their implicit candidate t(hub) + c is never
+    // queued: the best of them is the first unsettled vertex in decreasing potential order. Only the
+    // explicit successors of the hub take their implicit candidate from the short sorted list of the
+    // closest settled vertices, which cannot all have explicit arcs into them, and go through the heap.
+    private class ImplicitSearch {
+        private final long[] dist;
+        private final boolean[] settled;
+        private final int[] next; // unsettled vertices as a linked list in decreasing potential order
+        private final int[] prev;
+        private final int[] closest; // settled vertices of smallest distance, sorted by distance
+        private final IndexedMinHeap heap;
+        private int first;
+        private int closestCount;
+
+        ImplicitSearch(int vertexCount) {
+            dist = new long[vertexCount];
+            settled = new boolean[vertexCount];
+            next = new int[vertexCount];
+            prev = new int[vertexCount];
+            closest = new int[closestLength];
+            heap = new IndexedMinHeap(vertexCount);
+        }
+
+        // Method to compute true distances from the source, stopping once the target (if not -1) is settled
+        long[] run(int source, int target) {
+            reset();
+            long[] h = potentials.getDistances();
+            long defaultWeight = complete.getDefaultWeight();
+            dist[source] = 0;
+            heap.push(source, -h[source]);
+
+            while (true) {
+                while (!heap.isEmpty() && settled[heap.peek()]) {
+                    heap.poll();
+                }
+                // The best vertex reached by an implicit arc from the hub, skipping its explicit successors
+                int plain = -1;
+                if (closestCount > 0) {
+                    int hub = closest[0];
+                    plain = first;
+                    while (plain >= 0 && complete.hasExplicitArc(hub, plain)) {
+                        plain = next[plain];
+                    }
+                    if (plain >= 0 && !heap.isEmpty() && heap.peekKey() <= dist[hub] + defaultWeight - h[plain]) {
+                        plain = -1;
+                    }
+                }
+                int u;
+                if (plain >= 0) {
+                    u = plain;
+                    dist[u] = dist[closest[0]] + defaultWeight;
+                } else if (!heap.isEmpty()) {
+                    u = heap.poll();
+                } else {
+                    break;
+                }
+                settle(u);
+                if (u == target) {
+                    break;
+                }
+
+                for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                    relax(graph.target(e), dist[u] + graph.weight(e), h);
+                }
+
+                int hub = closest[0];
+                if (hub == u) {
+                    // New hub: its explicit successors now need the next closest eligible tail
+                    for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                        int v = graph.target(e);
+                        for (int i = 1; i < closestCount && !settled[v]; i++) {
+                            if (!complete.hasExplicitArc(closest[i], v)) {
+                                relax(v, dist[closest[i]] + defaultWeight, h);
+                                break;
+                            }
+                        }
+                    }
+                } else {
+                    // u is an implicit tail for the explicit successors of the hub it has no arc to
+                    for (int e = graph.firstEdge(hub), end = graph.endEdge(hub); e < end; e++) {
+                        int v = graph.target(e);
+                        if (v != u && !complete.hasExplicitArc(u, v)) {
+                            relax(v, dist[u] + defaultWeight, h);
+                        }
+                    }
+                }
+            }
+            for (int v = 0; v < dist.length; v++) {
+                if (!settled[v]) {
+                    dist[v] = DijkstraEngine.UNREACHABLE;
+                }
+            }
+            return dist;
+        }
+
+        private void relax(int v, long candidate, long[] h) {
+            if (!settled[v] && candidate < dist[v]) {
+                dist[v] = candidate;
+                heap.pushOrDecrease(v, candidate - h[v]);
+            }
+        }
+
+        // Method to mark u settled, unlink it from the potential order and keep the closest list sorted
+        private void settle(int u) {
+            settled[u] = true;
+            if (prev[u] >= 0) {
+                next[prev[u]] = next[u];
+            } else {
+                first = next[u];
+            }
+            if (next[u] >= 0) {
+                prev[next[u]] = prev[u];
+            }
+            if (closestCount == closest.length && dist[closest[closestCount - 1]] <= dist[u]) {
+                return;
+            }
+            int i = Math.min(closestCount, closest.length - 1);
+            while (i > 0 && dist[closest[i - 1]] > dist[u]) {
+                closest[i] = closest[i - 1];
+                i--;
+            }
+            closest[i] = u;
+            closestCount = Math.min(closestCount + 1, closest.length);
+        }
+
+        private void reset() {
+            Arrays.fill(dist, DijkstraEngine.UNREACHABLE);
+            Arrays.fill(settled, false);
+            heap.clear();
+            closestCount = 0;
+            first = byPotential.length > 0 ? byPotential[0] : -1;
+            for (int i = 0; i < byPotential.length; i++) {
+                int v = byPotential[i];
+                prev[v] = i > 0 ? byPotential[i - 1] : -1;
+                next[v] = i + 1 < byPotential.length ? byPotential[i + 1] : -1;
+            }
+        }
+    }
+}
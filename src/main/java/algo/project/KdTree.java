@@ -0,0 +1,246 @@
+package algo.project;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Static 2-d tree over a GeoPointSet for nearest-neighbour and radius queries.
+// Points are projected once to planar meters (equirectangular around the mean latitude), which is
+// accurate for city-sized areas. The tree is implicit: the points are reordered so that the median
+// of every range [lo, hi) sits at (lo + hi) / 2, with x and y splits alternating by depth.
+// Building takes O(n log n) and runs the two halves of large ranges in parallel.
+public class KdTree {
+
+    private static final double METERS_PER_DEGREE = Math.PI * GeoPointSet.EARTH_RADIUS_METERS / 180;
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final int[] order; // point indices in tree order
+    private final double[] xs; // projected coordinates in tree order
+    private final double[] ys;
+    private final double[] pointX; // projected coordinates by point index
+    private final double[] pointY;
+
+    // Constructor to build the tree over all points of the set
+    public KdTree(GeoPointSet points) {
+        this(points, ForkJoinPool.commonPool());
+    }
+
+    // Constructor to build the tree on the given pool
+    public KdTree(GeoPointSet points, ForkJoinPool pool) {
+        int n = points.size();
+        double meanLatitude = 0;
+        for (int i = 0; i < n; i++) {
+            meanLatitude += points.latitude(i) / n;
+        }
+        double xScale = METERS_PER_DEGREE * Math.cos(Math.toRadians(meanLatitude));
+        this.pointX = new double[n];
+        this.pointY = new double[n];
+        for (int i = 0; i < n; i++) {
+            pointX[i] = points.longitude(i) * xScale;
+            pointY[i] = points.latitude(i) * METERS_PER_DEGREE;
+        }
+        this.order = new int[n];
+        this.xs = new double[n];
+        this.ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            xs[i] = pointX[i];
+            ys[i] = pointY[i];
+        }
+        pool.invoke(new BuildTask(0, n, 0));
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    // Method to find the k points closest to a point of the set, excluding the point itself.
+    // Neighbours are written nearest first into outPoints; returns how many were found.
+    public int nearest(int point, int k, int[] outPoints, double[] scratchDistances) {
+        return nearest(pointX[point], pointY[point], point, k, outPoints, scratchDistances);
+    }
+
+    // Method to find the points of the set within the radius of a point, excluding the point itself
+    public void withinRadius(int point, double radiusMeters, IntList out) {
+        withinRadius(pointX[point], pointY[point], point, radiusMeters * radiusMeters, 0, order.length, 0, out);
+    }
+
+    // Method to get the planar distance in meters between two points, as used for neighbour selection
+    public double planarDistance(int a, int b) {
+        return Math.hypot(pointX[a] - pointX[b], pointY[a] - pointY[b]);
+    }
+
+    private int nearest(double x, double y, int exclude, int k, int[] outPoints, double[] distances) {
+        // outPoints/distances form a max-heap on distance while searching
+        int found = nearest(x, y, exclude, k, 0, order.length, 0, outPoints, distances, 0);
+        // Sort the heap so the nearest neighbour comes first
+        for (int end = found - 1; end > 0; end--) {
+            swap(outPoints, distances, 0, end);
+            siftDown(outPoints, distances, 0, end);
+        }
+        return found;
+    }
+
+    private int nearest(double x, double y, int exclude, int k, int lo, int hi, int depth,
+                        int[] heap, double[] distances, int found) {
+        if (lo >= hi) {
+            return found;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - x;
+        double dy = ys[mid] - y;
+        if (order[mid] != exclude) {
+            double d2 = dx * dx + dy * dy;
+            if (found < k) {
+                heap[found] = order[mid];
+                distances[found] = d2;
+                siftUp(heap, distances, found);
+                found++;
+            } else if (d2 < distances[0]) {
+                heap[0] = order[mid];
+                distances[0] = d2;
+                siftDown(heap, distances, 0, found);
+            }
+        }
+        double split = (depth & 1) == 0 ? dx : dy; // positive when the query lies before the split
+        boolean queryBefore = split > 0;
+        if (queryBefore) {
+            found = nearest(x, y, exclude, k, lo, mid, depth + 1, heap, distances, found);
+        } else {
+            found = nearest(x, y, exclude, k, mid + 1, hi, depth + 1, heap, distances, found);
+        }
+        // Visit the other side only if it can still hold something closer than the k-th best
+        if (found < k || split * split < distances[0]) {
+            if (queryBefore) {
+                found = nearest(x, y, exclude, k, mid + 1, hi, depth + 1, heap, distances, found);
+            } else {
+                found = nearest(x, y, exclude, k, lo, mid, depth + 1, heap, distances, found);
+            }
+        }
+        return found;
+    }
+
+    private void withinRadius(double x, double y, int exclude, double radius2, int lo, int hi, int depth, IntList out) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - x;
+        double dy = ys[mid] - y;
+        if (order[mid] != exclude && dx * dx + dy * dy <= radius2) {
+            out.add(order[mid]);
+        }
+        double split = (depth & 1) == 0 ? dx : dy;
+        if (split > 0 || split * split <= radius2) {
+            withinRadius(x, y, exclude, radius2, lo, mid, depth + 1, out);
+        }
+        if (split <= 0 || split * split <= radius2) {
+            withinRadius(x, y, exclude, radius2, mid + 1, hi, depth + 1, out);
+        }
+    }
+
+    private static void siftUp(int[] heap, double[] distances, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (distances[parent] >= distances[index]) {
+                break;
+            }
+            swap(heap, distances, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] distances, int index, int size) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[index] >= distances[child]) {
+                break;
+            }
+            swap(heap, distances, index, child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] heap, double[] distances, int a, int b) {
+        int point = heap[a];
+        heap[a] = heap[b];
+        heap[b] = point;
+        double distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+    }
+
+    // Task that places the median of [lo, hi) in the middle and builds both halves
+    private class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final int depth;
+
+        BuildTask(int lo, int hi, int depth) {
+            this.lo = lo;
+            this.hi = hi;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, (depth & 1) == 0 ? xs : ys);
+            if (hi - lo >= PARALLEL_THRESHOLD) {
+                invokeAll(new BuildTask(lo, mid, depth + 1), new BuildTask(mid + 1, hi, depth + 1));
+            } else {
+                new BuildTask(lo, mid, depth + 1).compute();
+                new BuildTask(mid + 1, hi, depth + 1).compute();
+            }
+        }
+
+        // Quickselect: reorder [left, right] so that position k holds the k-th smallest key
+        private void select(int left, int right, int k, double[] keys) {
+            while (right > left) {
+                double pivot = keys[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (keys[i] < pivot) {
+                        i++;
+                    }
+                    while (keys[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        exchange(i++, j--);
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void exchange(int a, int b) {
+            int point = order[a];
+            order[a] = order[b];
+            order[b] = point;
+            double x = xs[a];
+            xs[a] = xs[b];
+            xs[b] = x;
+            double y = ys[a];
+            ys[a] = ys[b];
+            ys[b] = y;
+        }
+    }
+}
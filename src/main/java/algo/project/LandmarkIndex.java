@@ -0,0 +1,139 @@
+package algo.project;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Landmark preprocessing for ALT queries (A*, Landmarks, Triangle inequality).
+// For a few landmark vertices L the index stores d(L, v) and d(v, L) for every vertex v. By the
+// triangle inequality, d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L), and the best
+// of these bounds over all landmarks is usually much tighter than a straight-line distance.
+// Landmarks are picked greedily, each one as far as possible from the ones already chosen.
+public class LandmarkIndex {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+    private final int[] landmarks;
+    private final int[][] fromLandmark; // fromLandmark[i][v] = d(landmark i, v)
+    private final int[][] toLandmark;   // toLandmark[i][v] = d(v, landmark i)
+
+    // Constructor that selects the landmarks and computes their distance arrays
+    public LandmarkIndex(CompactGraph graph, int landmarkCount) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("Need at least one landmark, got " + landmarkCount);
+        }
+        this.graph = graph;
+        int n = graph.vertexCount();
+        int count = Math.min(landmarkCount, n);
+        this.landmarks = new int[count];
+        this.fromLandmark = new int[count][];
+        this.toLandmark = new int[count][];
+        if (count == 0) {
+            return;
+        }
+
+        DijkstraEngine forward = new DijkstraEngine(graph);
+        DijkstraEngine backward = new DijkstraEngine(graph.transpose());
+
+        // Smallest distance from each vertex to the chosen landmarks, in either direction
+        long[] closest = new long[n];
+        Arrays.fill(closest, Long.MAX_VALUE);
+        int next = farthestFrom(forward, 0);
+        for (int i = 0; i < count; i++) {
+            int landmark = next;
+            landmarks[i] = landmark;
+            // The two searches of a landmark are independent, so the backward one runs on the pool
+            ForkJoinTask<int[]> to = ForkJoinPool.commonPool().submit(() -> distanceArray(backward, landmark));
+            fromLandmark[i] = distanceArray(forward, landmark);
+            toLandmark[i] = to.join();
+            next = -1;
+            long best = -1;
+            for (int v = 0; v < n; v++) {
+                long d = Math.min(asLong(fromLandmark[i][v]), asLong(toLandmark[i][v]));
+                closest[v] = Math.min(closest[v], d);
+                if (closest[v] != Long.MAX_VALUE && closest[v] > best && !isLandmark(v, i + 1)) {
+                    best = closest[v];
+                    next = v;
+                }
+            }
+            if (next < 0) {
+                next = firstNonLandmark(i + 1);
+            }
+        }
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    // Handles of the chosen landmarks
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    // Method to get the best triangle-inequality lower bound on d(vertex, target)
+    public long lowerBound(int vertex, int target) {
+        long best = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            int[] from = fromLandmark[i];
+            int[] to = toLandmark[i];
+            if (from[target] != UNREACHABLE && from[vertex] != UNREACHABLE) {
+                best = Math.max(best, (long) from[target] - from[vertex]);
+            }
+            if (to[vertex] != UNREACHABLE && to[target] != UNREACHABLE) {
+                best = Math.max(best, (long) to[vertex] - to[target]);
+            }
+        }
+        return best;
+    }
+
+    // Method to find the reachable vertex farthest from the start, used as the first landmark
+    private static int farthestFrom(DijkstraEngine engine, int start) {
+        SearchState state = engine.searchFrom(start);
+        int farthest = start;
+        for (int v = 0; v < engine.getGraph().vertexCount(); v++) {
+            long d = state.distanceOf(v);
+            if (d != DijkstraEngine.UNREACHABLE && d > state.distanceOf(farthest)) {
+                farthest = v;
+            }
+        }
+        return farthest;
+    }
+
+    // Method to get all distances from a vertex as ints, with UNREACHABLE for vertices not reached
+    private static int[] distanceArray(DijkstraEngine engine, int source) {
+        SearchState state = engine.searchFrom(source);
+        int[] result = new int[engine.getGraph().vertexCount()];
+        for (int v = 0; v < result.length; v++) {
+            long d = state.distanceOf(v);
+            if (d != DijkstraEngine.UNREACHABLE && d >= UNREACHABLE) {
+                throw new IllegalStateException("Landmark distance " + d + " does not fit in an int");
+            }
+            result[v] = d == DijkstraEngine.UNREACHABLE ? UNREACHABLE : (int) d;
+        }
+        return result;
+    }
+
+    private static long asLong(int distance) {
+        return distance == UNREACHABLE ? Long.MAX_VALUE : distance;
+    }
+
+    private boolean isLandmark(int vertex, int chosen) {
+        for (int i = 0; i < chosen; i++) {
+            if (landmarks[i] == vertex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int firstNonLandmark(int chosen) {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (!isLandmark(v, chosen)) {
+                return v;
+            }
+        }
+        return 0;
+    }
+}
@@ -2,9 +2,23 @@ package algo.project;
 
 import org.graphstream.ui.view.Viewer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class Main {
 
     public static void main(String[] args) {
+        // "serve [port] [csv file] [k]" starts the headless routing service instead of the demo
+        if (args.length > 0 && args[0].equals("serve")) {
+            try {
+                RoutingServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException e) {
+                System.out.println("IOException occurred: " + e);
+            }
+            return;
+        }
+
         // Configure the GraphStream to use Swing for rendering
         System.setProperty("org.graphstream.ui", "swing");
 
@@ -19,24 +33,146 @@ public class Main {
         System.out.println("Positive Graph:");
         positiveGraphGenerator.printGraph(positiveGraph);
 
+        // Query the shortest path between the two garages
+        DijkstraEngine dijkstra = new DijkstraEngine(positiveGraph);
+        Vertex garage1 = positiveGraph.getVertex("Garage1");
+        Vertex garage2 = positiveGraph.getVertex("Garage2");
+        if (garage1 != null && garage2 != null) {
+            System.out.println("Shortest distance Garage1 -> Garage2: " + dijkstra.distance(garage1, garage2));
+            System.out.println("Shortest path Garage1 -> Garage2: " + dijkstra.path(garage1, garage2));
+        }
+
+        // Build the geospatial graph of all trips and compare the search effort of the engines
+        CompactGraph geoGraph = positiveGraphGenerator.generateGeoGraphFromCSV(csvFilePath, 6);
+        printSettledCounts(geoGraph, positiveGraphGenerator.getGeoPoints());
+
+        // Distances from both garages to every pickup in one batched call
+        int[] garages = geoGraph.verticesOfType("Garage");
+        int[] pickups = geoGraph.verticesOfType("Pickup");
+        DistanceMatrix garageToPickup = new ManyToManyEngine(geoGraph).matrix(garages, pickups);
+        System.out.println("Garage -> Pickup matrix: " + garageToPickup.rows() + " x " + garageToPickup.cols());
+
+        // Plan one tour from Garage1 to Garage2 that serves the first 50 trips, within one second
+        int tripCount = Math.min(50, pickups.length);
+        int[] tourPickups = new int[tripCount];
+        int[] tourDropoffs = new int[tripCount];
+        for (int i = 0; i < tripCount; i++) {
+            tourPickups[i] = 2 * i;
+            tourDropoffs[i] = 2 * i + 1;
+        }
+        TourOptimizer.Tour tour = TourOptimizer.forVertices(new ManyToManyEngine(geoGraph), garages[0],
+                garages[garages.length - 1], tourPickups, tourDropoffs).optimize(1000);
+        System.out.println("Tour over " + tripCount + " trips: " + tour);
+
+        // Keep the garage trees up to date while the first arc out of Garage1 gets congested
+        DynamicShortestPaths garageTrees = DynamicShortestPaths.fromGarages(geoGraph);
+        int garage = garages[0];
+        if (geoGraph.outDegree(garage) > 0) {
+            int edge = geoGraph.firstEdge(garage);
+            int changed = garageTrees.setWeight(garage, geoGraph.target(edge), geoGraph.weight(edge) * 3);
+            System.out.println("Congested arc changed " + changed + " garage distances, visiting "
+                    + garageTrees.lastTouchedCount() + " of " + geoGraph.vertexCount() + " vertices");
+        }
+
+        // One time-dependent graph answers the garage query for a departure at midnight and at 9:00
+        TimeDependentGraph timedGraph = positiveGraphGenerator.generateTimeDependentGraphFromCSV(csvFilePath, geoGraph,
+                positiveGraphGenerator.getGeoPoints());
+        TimeDependentDijkstraEngine timedEngine = TimeDependentDijkstraEngine.aStar(timedGraph, positiveGraphGenerator.getGeoPoints());
+        int target = garages.length > 1 ? garages[1] : garage;
+        for (int hour : new int[]{0, 9}) {
+            long seconds = timedEngine.travelTime(garage, target, hour * 3_600_000L) / 1000;
+            System.out.println("Garage1 -> Garage2 leaving at " + hour + ":00 takes " + seconds + " s on " + timedGraph);
+        }
+
+        // Save the geospatial graph as a binary snapshot and answer a query straight from the mapped file
+        Path snapshotPath = Paths.get("shortest-path/geo_graph.bin");
+        try {
+            BinaryGraphWriter.write(geoGraph, positiveGraphGenerator.getGeoPoints(), snapshotPath);
+            MappedGraph mapped = MappedGraph.open(snapshotPath);
+            long distance = new DijkstraEngine(mapped).distance(mapped.indexOfId("Garage1"), mapped.indexOfId("Garage2"));
+            System.out.println("Mapped snapshot " + mapped + ": Garage1 -> Garage2 distance " + distance + " m");
+        } catch (IOException e) {
+            System.out.println("IOException occurred: " + e);
+        }
+
         // Convert to GraphStream graph and display the positive graph
         org.graphstream.graph.Graph gsPositiveGraph = positiveGraphGenerator.toGraphStreamGraph();
         Viewer positiveViewer = gsPositiveGraph.display();
         positiveViewer.setCloseFramePolicy(Viewer.CloseFramePolicy.EXIT);
 
+        // Show the trips and their nearest-neighbour arcs on the street map
+        new MapVisualizer(geoGraph, positiveGraphGenerator.getGeoPoints()).show("Trips on Map");
+
+        // Show only the Garage1 -> Garage2 route and its 2-hop neighbourhood instead of every trip
+        int[] garagePath = new DijkstraEngine(geoGraph).path(garage, target);
+        if (garagePath != null) {
+            org.graphstream.graph.Graph gsRoute = positiveGraphGenerator.toGraphStreamGraph(geoGraph, garagePath, 2, 2000);
+            Viewer routeViewer = gsRoute.display(false);
+            routeViewer.setCloseFramePolicy(Viewer.CloseFramePolicy.EXIT);
+        }
+
         // Specify the path to the CSV file for negative graph
         String negativeCsvFilePath = "shortest-path/negative_file.csv"; // Update with actual path provided by the user
 
-        // Create a negative graph from the CSV file
-        Graph negativeGraph = NegativeGraph.createNegativeGraphFromCSV(negativeCsvFilePath, positiveGraph);
+        // Create the negative graph from the CSV file; its 0-weight completion edges stay implicit
+        CompleteGraphView negativeGraph = NegativeGraph.createImplicitNegativeGraphFromCSV(negativeCsvFilePath, positiveGraph);
 
         // Print the negative graph
         System.out.println("Negative Graph:");
         NegativeGraph.printGraph(negativeGraph);
 
-        // Convert to GraphStream graph and display the negative graph
-        org.graphstream.graph.Graph gsNegativeGraph = NegativeGraph.toGraphStreamGraph(negativeGraph);
+        // Run Bellman-Ford from the first pickup and report distances or the negative cycle found
+        // Keep the cycle, or the path to Dropoff1, for the display below
+        int pickup1 = negativeGraph.getOverrides().indexOf("Pickup1");
+        int[] negativePath = pickup1 >= 0 ? new int[]{pickup1} : new int[0];
+        if (pickup1 >= 0) {
+            BellmanFordEngine.Result result = new BellmanFordEngine(negativeGraph).run(pickup1);
+            if (result.hasNegativeCycle()) {
+                System.out.println("Negative cycle reachable from Pickup1: " + result.getCycleVertices());
+                int[] cycle = result.getCycle();
+                negativePath = java.util.Arrays.copyOf(cycle, cycle.length + 1);
+                negativePath[cycle.length] = cycle[0];
+            } else {
+                System.out.println("Distances from Pickup1: " + java.util.Arrays.toString(result.getDistances()));
+                int dropoff1 = negativeGraph.getOverrides().indexOf("Dropoff1");
+                if (dropoff1 >= 0 && result.path(dropoff1) != null) {
+                    negativePath = result.path(dropoff1);
+                }
+            }
+        }
+
+        // All-pairs distances on the same graph, again without building the implicit edges
+        JohnsonEngine johnson = new JohnsonEngine(negativeGraph);
+        if (!johnson.hasNegativeCycle()) {
+            DistanceMatrix negativeDistances = johnson.allPairs();
+            System.out.println("All-pairs distances: " + negativeDistances.rows() + " x " + negativeDistances.cols());
+        }
+
+        // Display only that path or cycle and its 1-hop neighbourhood; the implicit edges are never built
+        org.graphstream.graph.Graph gsNegativeGraph = NegativeGraph.toGraphStreamGraph(negativeGraph, negativePath, 1, 2000);
         Viewer negativeViewer = gsNegativeGraph.display();
         negativeViewer.setCloseFramePolicy(Viewer.CloseFramePolicy.EXIT);
     }
+
+    // Method to print the distance and settled-vertex count of each engine for Garage1 -> Garage2
+    private static void printSettledCounts(CompactGraph graph, GeoPointSet points) {
+        int source = graph.vertexCount() - 2;
+        int target = graph.vertexCount() - 1;
+        PointToPointEngine[] engines = {
+                new DijkstraEngine(graph),
+                new BidirectionalDijkstraEngine(graph),
+                AStarEngine.haversine(graph, points, 1.0),
+                AStarEngine.landmarks(new LandmarkIndex(graph, 8))
+        };
+        String[] names = {"Dijkstra", "Bidirectional Dijkstra", "A* (haversine)", "ALT (8 landmarks)"};
+        for (int i = 0; i < engines.length; i++) {
+            // Record the query and publish the engine's metrics over JMX while the viewers are open
+            EngineMetrics metrics = engines[i].getMetrics();
+            metrics.setEnabled(true);
+            metrics.register(names[i]);
+            long distance = engines[i].distance(source, target);
+            System.out.println(names[i] + ": distance " + distance + " m, settled " + engines[i].lastSettledCount()
+                    + " vertices, relaxed " + metrics.getEdgesRelaxed() + " arcs in " + metrics.getLatencyMaxMicros() + " us");
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package algo.project;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Distance tables between a set of sources and a set of targets, for example every garage and
+// pickup against every dropoff. The work of the N x M queries is shared in one of two ways:
+//  - on a CompactGraph, one Dijkstra per source that stops as soon as all targets are settled;
+//  - on a ContractionHierarchy, the bucket method: one backward upward search per target leaves
+//    (target, distance) entries in a bucket at every vertex it settles, and one forward upward search
+//    per source scans the buckets of the vertices it settles. Each source-target pair meets at the
+//    top vertex of its shortest path, so N + M small searches replace N x M queries.
+// Sources are processed in parallel and every row of the result is written by a single thread.
+public class ManyToManyEngine {
+
+    private final CompactGraph graph;
+    private final ContractionHierarchy hierarchy;
+    private final int vertexCount;
+    private final ThreadLocal<SearchState> states;
+
+    // Constructor for per-source searches on a graph with non-negative weights
+    public ManyToManyEngine(CompactGraph graph) {
+        if (graph.minWeight() < 0) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative weights, found " + graph.minWeight());
+        }
+        this.graph = graph;
+        this.hierarchy = null;
+        this.vertexCount = graph.vertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(vertexCount));
+    }
+
+    // Constructor for bucket-based tables on a preprocessed hierarchy
+    public ManyToManyEngine(ContractionHierarchy hierarchy) {
+        this.graph = null;
+        this.hierarchy = hierarchy;
+        this.vertexCount = hierarchy.vertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(vertexCount));
+    }
+
+    // Method to compute the sources x targets table using every core
+    public DistanceMatrix matrix(int[] sources, int[] targets) {
+        return matrix(sources, targets, ForkJoinPool.commonPool());
+    }
+
+    // Method to compute the sources x targets table on the given pool; row i is sources[i], column j is
+    // targets[j], and unreachable pairs hold DijkstraEngine.UNREACHABLE
+    public DistanceMatrix matrix(int[] sources, int[] targets, ForkJoinPool pool) {
+        checkHandles(sources);
+        checkHandles(targets);
+        DistanceMatrix matrix = new DistanceMatrix(sources.length, targets.length);
+        if (sources.length == 0 || targets.length == 0) {
+            return matrix;
+        }
+        if (hierarchy == null) {
+            pool.submit(() -> IntStream.range(0, sources.length).parallel().forEach(i -> {
+                long[] row = new long[targets.length];
+                searchToTargets(sources[i], targets, row);
+                writeRow(matrix, i, row);
+            })).join();
+        } else {
+            Buckets buckets = collectBuckets(targets, pool);
+            pool.submit(() -> IntStream.range(0, sources.length).parallel().forEach(i -> {
+                long[] row = new long[targets.length];
+                scanBuckets(sources[i], buckets, row);
+                writeRow(matrix, i, row);
+            })).join();
+        }
+        return matrix;
+    }
+
+    // Method to get the distances from one source to every target, in target order
+    public long[] oneToMany(int source, int[] targets) {
+        checkHandles(targets);
+        long[] row = new long[targets.length];
+        if (hierarchy == null) {
+            searchToTargets(source, targets, row);
+        } else {
+            scanBuckets(source, collectBuckets(targets, ForkJoinPool.commonPool()), row);
+        }
+        return row;
+    }
+
+    // Method to run Dijkstra from the source until every target is settled
+    private void searchToTargets(int source, int[] targets, long[] row) {
+        SearchState state = states.get();
+        state.reset();
+        // Pending targets are marked in the state, so its reset also clears them when the stamp wraps
+        int pending = 0;
+        for (int target : targets) {
+            if (state.mark(target)) {
+                pending++;
+            }
+        }
+
+        IndexedMinHeap heap = state.heap;
+        state.reach(source, 0, -1);
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            long d = heap.peekKey();
+            int v = heap.poll();
+            state.settled++;
+            if (state.isMarked(v) && --pending == 0) {
+                break;
+            }
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int w = graph.target(e);
+                long candidate = d + graph.weight(e);
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    heap.push(w, candidate);
+                } else if (candidate < state.dist[w]) {
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    heap.decreaseKey(w, candidate);
+                }
+            }
+        }
+        for (int j = 0; j < targets.length; j++) {
+            row[j] = state.distanceOf(targets[j]);
+        }
+    }
+
+    // Method to run the backward upward search of every target and group the results by vertex
+    private Buckets collectBuckets(int[] targets, ForkJoinPool pool) {
+        int[][] vertices = new int[targets.length][];
+        long[][] distances = new long[targets.length][];
+        pool.submit(() -> IntStream.range(0, targets.length).parallel().forEach(j -> {
+            SearchState state = states.get();
+            IntList settled = new IntList();
+            hierarchy.upwardSearch(targets[j], false, state, settled);
+            vertices[j] = settled.toArray();
+            distances[j] = new long[settled.size()];
+            for (int k = 0; k < settled.size(); k++) {
+                distances[j][k] = state.dist[settled.get(k)];
+            }
+        })).join();
+
+        // Counting sort of all (vertex, target, distance) entries into per-vertex buckets
+        int[] offsets = new int[vertexCount + 1];
+        for (int[] list : vertices) {
+            for (int v : list) {
+                offsets[v + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = offsets.clone();
+        int[] bucketTargets = new int[offsets[vertexCount]];
+        long[] bucketDistances = new long[offsets[vertexCount]];
+        for (int j = 0; j < targets.length; j++) {
+            for (int k = 0; k < vertices[j].length; k++) {
+                int position = next[vertices[j][k]]++;
+                bucketTargets[position] = j;
+                bucketDistances[position] = distances[j][k];
+            }
+        }
+        return new Buckets(offsets, bucketTargets, bucketDistances);
+    }
+
+    // Method to run the forward upward search of a source and combine it with the target buckets
+    private void scanBuckets(int source, Buckets buckets, long[] row) {
+        Arrays.fill(row, DijkstraEngine.UNREACHABLE);
+        SearchState state = states.get();
+        IntList settled = new IntList();
+        hierarchy.upwardSearch(source, true, state, settled);
+        for (int k = 0; k < settled.size(); k++) {
+            int v = settled.get(k);
+            long d = state.dist[v];
+            for (int b = buckets.offsets[v], end = buckets.offsets[v + 1]; b < end; b++) {
+                long candidate = d + buckets.distances[b];
+                int column = buckets.targets[b];
+                if (candidate < row[column]) {
+                    row[column] = candidate;
+                }
+            }
+        }
+    }
+
+    private static void writeRow(DistanceMatrix matrix, int row, long[] values) {
+        for (int j = 0; j < values.length; j++) {
+            matrix.set(row, j, values[j]);
+        }
+    }
+
+    private void checkHandles(int[] handles) {
+        for (int handle : handles) {
+            if (handle < 0 || handle >= vertexCount) {
+                throw new IndexOutOfBoundsException("Vertex handle " + handle + " out of range for " + vertexCount + " vertices");
+            }
+        }
+    }
+
+    // Entries left by the backward searches, grouped by the vertex where they were settled
+    private static final class Buckets {
+        final int[] offsets;
+        final int[] targets;   // column of the target that left the entry
+        final long[] distances; // distance from the vertex to that target
+
+        Buckets(int[] offsets, int[] targets, long[] distances) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.distances = distances;
+        }
+    }
+}
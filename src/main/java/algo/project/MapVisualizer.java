@@ -1,163 +1,494 @@
-// package algo.project;
-
-// import org.jxmapviewer.JXMapViewer;
-// import org.jxmapviewer.OSMTileFactoryInfo;
-// import org.jxmapviewer.painter.CompoundPainter;
-// import org.jxmapviewer.painter.Painter;
-// import org.jxmapviewer.viewer.DefaultWaypoint;
-// import org.jxmapviewer.viewer.GeoPosition;
-// import org.jxmapviewer.viewer.TileFactoryInfo;
-// import org.jxmapviewer.viewer.WaypointPainter;
-// import org.jxmapviewer.input.CenterMapListener;
-// import org.jxmapviewer.input.PanKeyListener;
-// import org.jxmapviewer.input.PanMouseInputListener;
-// import org.jxmapviewer.input.ZoomMouseWheelListenerCenter;
-
-// import javax.swing.*;
-// import java.awt.*;
-// import java.awt.geom.Point2D;
-// import java.util.ArrayList;
-// import java.util.List;
-// import java.util.stream.Collectors;
-
-// public class MapVisualizer {
-
-//     public static void visualize(Graph graph) {
-//         // Create a JXMapViewer
-//         JXMapViewer mapViewer = new JXMapViewer();
-
-//         // Set the tile factory (OpenStreetMap)
-//         TileFactoryInfo info = new OSMTileFactoryInfo();
-//         mapViewer.setTileFactory(new org.jxmapviewer.viewer.DefaultTileFactory(info));
-
-//         // Create waypoints from graph vertices
-//         List<GeoPosition> waypoints = new ArrayList<>();
-//         for (Vertex vertex : graph.getVertices()) {
-//             String[] coordinates = vertex.getId().split(",");
-//             try {
-//                 double lon = Double.parseDouble(coordinates[0]);
-//                 double lat = Double.parseDouble(coordinates[1]);
-//                 waypoints.add(new GeoPosition(lat, lon));
-//             } catch (NumberFormatException e) {
-//                 e.printStackTrace();
-//             }
-//         }
-
-//         // Set the initial focus and zoom level
-//         if (!waypoints.isEmpty()) {
-//             mapViewer.setZoom(10);
-//             mapViewer.setAddressLocation(waypoints.get(0));
-//         }
-
-//         // Create waypoints painter
-//         WaypointPainter<DefaultWaypoint> waypointPainter = new WaypointPainter<>();
-//         waypointPainter.setWaypoints(waypoints.stream().map(DefaultWaypoint::new).collect(Collectors.toSet()));
-
-//         // Create a custom painter for edges
-//         Painter<JXMapViewer> edgePainter = new Painter<JXMapViewer>() {
-//             @Override
-//             public void paint(Graphics2D g, JXMapViewer map, int w, int h) {
-//                 g = (Graphics2D) g.create();
-//                 g.setStroke(new BasicStroke(2)); // Make edges more prominent
-
-//                 // Convert map viewer to world bitmap coordinates
-//                 Rectangle rect = map.getViewportBounds();
-//                 int zoom = map.getZoom();
-
-//                 for (Edge edge : graph.getEdges()) {
-//                     Vertex start = edge.getFromVertex();
-//                     Vertex end = edge.getToVertex();
-
-//                     String[] startCoords = start.getId().split(",");
-//                     String[] endCoords = end.getId().split(",");
-
-//                     try {
-//                         double startLon = Double.parseDouble(startCoords[0]);
-//                         double startLat = Double.parseDouble(startCoords[1]);
-//                         double endLon = Double.parseDouble(endCoords[0]);
-//                         double endLat = Double.parseDouble(endCoords[1]);
-
-//                         Point2D startPoint = map.getTileFactory().geoToPixel(new GeoPosition(startLat, startLon), zoom);
-//                         Point2D endPoint = map.getTileFactory().geoToPixel(new GeoPosition(endLat, endLon), zoom);
-
-//                         int x1 = (int) (startPoint.getX() - rect.getX());
-//                         int y1 = (int) (startPoint.getY() - rect.getY());
-//                         int x2 = (int) (endPoint.getX() - rect.getX());
-//                         int y2 = (int) (endPoint.getY() - rect.getY());
-
-//                         // Draw the edge in black
-//                         g.setColor(Color.BLACK);
-//                         g.drawLine(x1, y1, x2, y2);
-
-//                         // Draw weight label on the edge
-//                         String weightLabel = String.valueOf(edge.getWeight());
-//                         g.setColor(Color.BLUE);
-//                         g.drawString(weightLabel, (x1 + x2) / 2, (y1 + y2) / 2);
-//                     } catch (NumberFormatException e) {
-//                         e.printStackTrace();
-//                     }
-//                 }
-
-//                 g.dispose();
-//             }
-//         };
-
-//         // Create a custom painter for vertex labels
-//         Painter<JXMapViewer> vertexLabelPainter = new Painter<JXMapViewer>() {
-//             @Override
-//             public void paint(Graphics2D g, JXMapViewer map, int w, int h) {
-//                 g = (Graphics2D) g.create();
-//                 g.setColor(Color.BLACK);
-
-//                 // Convert map viewer to world bitmap coordinates
-//                 Rectangle rect = map.getViewportBounds();
-//                 int zoom = map.getZoom();
-
-//                 for (Vertex vertex : graph.getVertices()) {
-//                     String[] coords = vertex.getId().split(",");
-//                     try {
-//                         double lon = Double.parseDouble(coords[0]);
-//                         double lat = Double.parseDouble(coords[1]);
-
-//                         Point2D point = map.getTileFactory().geoToPixel(new GeoPosition(lat, lon), zoom);
-
-//                         int x = (int) (point.getX() - rect.getX());
-//                         int y = (int) (point.getY() - rect.getY());
-
-//                         // Draw vertex ID with formatted coordinates and type
-//                         String formattedId = String.format("%.2f,%.2f (%s)", lon, lat, vertex.getName());
-//                         g.drawString(formattedId, x, y);
-//                     } catch (NumberFormatException e) {
-//                         e.printStackTrace();
-//                     }
-//                 }
-
-//                 g.dispose();
-//             }
-//         };
-
-//         // Combine painters
-//         List<Painter<JXMapViewer>> painters = new ArrayList<>();
-//         painters.add(waypointPainter);
-//         painters.add(edgePainter);
-//         painters.add(vertexLabelPainter);
-
-//         CompoundPainter<JXMapViewer> compoundPainter = new CompoundPainter<>(painters);
-//         mapViewer.setOverlayPainter(compoundPainter);
-
-//         // Add mouse interactions
-//         mapViewer.addMouseListener(new PanMouseInputListener(mapViewer));
-//         mapViewer.addMouseMotionListener(new PanMouseInputListener(mapViewer));
-//         mapViewer.addMouseWheelListener(new ZoomMouseWheelListenerCenter(mapViewer));
-//         mapViewer.addKeyListener(new PanKeyListener(mapViewer));
-//         mapViewer.addMouseListener(new CenterMapListener(mapViewer));
-
-//         // Create a JFrame to display the map
-//         JFrame frame = new JFrame("Graph Visualization on Map");
-//         frame.setLayout(new BorderLayout());
-//         frame.add(mapViewer, BorderLayout.CENTER);
-//         frame.setSize(800, 600);
-//         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-//         frame.setVisible(true);
-//     }
-// }
+package algo.project;
+
+import org.jxmapviewer.JXMapViewer;
+import org.jxmapviewer.OSMTileFactoryInfo;
+import org.jxmapviewer.input.CenterMapListener;
+import org.jxmapviewer.input.PanKeyListener;
+import org.jxmapviewer.input.PanMouseInputListener;
+import org.jxmapviewer.input.ZoomMouseWheelListenerCenter;
+import org.jxmapviewer.painter.Painter;
+import org.jxmapviewer.viewer.DefaultTileFactory;
+import org.jxmapviewer.viewer.GeoPosition;
+import org.jxmapviewer.viewer.TileFactoryInfo;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Draws a geospatial graph over OpenStreetMap tiles.
+// Vertex coordinates are taken once from a GeoPointSet (or parsed once from "lon,lat" IDs), and the
+// Mercator latitude of every vertex is computed once, so projecting to a zoom level is two
+// multiply-adds per vertex; the pixel positions of each zoom level are cached in float arrays as
+// offsets from the corner of the graph's bounding box, so they stay exact to well below a pixel even
+// at the most detailed zoom, where world pixel coordinates reach tens of millions.
+// Arcs are kept in a uniform grid over (longitude, Mercator latitude), so a repaint only looks at
+// the arcs in the cells under the viewport; vertex dots come from the ends of those arcs, and the
+// few vertices without a drawn arc have a grid of their own. Arcs that would be drawn shorter than a few pixels are
+// not drawn as lines but counted into small screen bins, which are shaded by their count, and when
+// very many arcs are visible the longer ones are binned too; zoomed out, dense areas become a heat
+// map and the cost of a repaint follows the visible arcs, not all of them. Weights and vertex
+// labels only appear once few enough arcs and vertices are visible.
+// All painting and caching happens on the Swing event thread.
+public class MapVisualizer {
+
+    // Arcs shorter than this on screen are aggregated into bins of this size
+    private static final int BIN_PIXELS = 4;
+    // Above this many visible arcs, arcs up to DENSE_PIXELS long are aggregated as well
+    private static final int LINE_BUDGET = 10_000;
+    private static final int DENSE_PIXELS = 4 * BIN_PIXELS;
+    // Labels are only drawn when at most this many arcs or vertices are visible
+    private static final int LABEL_LIMIT = 300;
+    // Vertex dots are only drawn when at most this many vertices are visible
+    private static final int DOT_LIMIT = 5000;
+    // Arcs whose bounding box covers more cells than this are checked on every repaint instead
+    private static final int MAX_CELLS_PER_ARC = 16;
+    private static final int MAX_CELLS_PER_AXIS = 1024;
+    private static final double MAX_SIN_LATITUDE = 0.9999;
+
+    private final CompactGraph graph;
+    private final GeoPointSet points;
+    private final double[] mercator; // zoom-independent projected latitude of every vertex
+    private final int[] tails;
+    private final int[] drawnEdges; // one arc of each antiparallel pair
+
+    // Grid over (longitude, Mercator latitude) with the arcs that overlap every cell, in CSR form
+    private final double minLon;
+    private final double minMercator;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellEdges;
+    private final int[] longEdges;
+    private final int[] looseStart; // vertices without a drawn arc, by cell, in CSR form
+    private final int[] looseVertices;
+
+    private final TileFactoryInfo info = new OSMTileFactoryInfo();
+    private final float[][] xAtZoom;
+    private final float[][] yAtZoom;
+    private final double[] originX; // world pixel position of the bounding box corner at every zoom
+    private final double[] originY;
+    private final int[] edgeStamp;
+    private final int[] vertexStamp;
+    private int stamp;
+    private int[] bins = new int[0];
+    // The bins are shaded into an image with one pixel per bin, which is drawn scaled up in one call
+    private BufferedImage heat;
+    private final int[] shades = new int[16];
+
+    // Constructor with the graph and the coordinates of its vertices, indexed by vertex handle
+    public MapVisualizer(CompactGraph graph, GeoPointSet points) {
+        if (points.size() != graph.vertexCount()) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + graph.vertexCount() + " vertices");
+        }
+        this.graph = graph;
+        this.points = points;
+        int n = graph.vertexCount();
+        this.mercator = new double[n];
+        for (int v = 0; v < n; v++) {
+            double sin = Math.sin(Math.toRadians(points.latitude(v)));
+            sin = Math.max(-MAX_SIN_LATITUDE, Math.min(MAX_SIN_LATITUDE, sin));
+            mercator[v] = 0.5 * Math.log((1 + sin) / (1 - sin));
+        }
+
+        // Keep one arc of every antiparallel pair, as both would be drawn on the same line
+        this.tails = new int[graph.edgeCount()];
+        IntList kept = new IntList();
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                tails[e] = v;
+                int w = graph.target(e);
+                if (drawable(v) && drawable(w) && (v < w || graph.findEdge(w, v) < 0)) {
+                    kept.add(e);
+                }
+            }
+        }
+        this.drawnEdges = kept.toArray();
+
+        double lonLow = Double.POSITIVE_INFINITY;
+        double lonHigh = Double.NEGATIVE_INFINITY;
+        double mercatorLow = Double.POSITIVE_INFINITY;
+        double mercatorHigh = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            if (drawable(v)) {
+                lonLow = Math.min(lonLow, points.longitude(v));
+                lonHigh = Math.max(lonHigh, points.longitude(v));
+                mercatorLow = Math.min(mercatorLow, mercator[v]);
+                mercatorHigh = Math.max(mercatorHigh, mercator[v]);
+            }
+        }
+        if (lonLow > lonHigh) {
+            lonLow = lonHigh = mercatorLow = mercatorHigh = 0;
+        }
+        int cellsPerAxis = (int) Math.max(1, Math.min(MAX_CELLS_PER_AXIS, Math.sqrt(drawnEdges.length / 4.0)));
+        this.minLon = lonLow;
+        this.minMercator = mercatorLow;
+        this.cellWidth = Math.max(1e-9, (lonHigh - lonLow) / cellsPerAxis);
+        this.cellHeight = Math.max(1e-9, (mercatorHigh - mercatorLow) / cellsPerAxis);
+        this.columns = cellsPerAxis;
+        this.rows = cellsPerAxis;
+
+        // Count, then fill the arcs of every cell; long arcs go to their own list
+        this.cellStart = new int[columns * rows + 1];
+        IntList longOnes = new IntList();
+        int[] fill = null;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] next = pass == 1 ? Arrays.copyOf(cellStart, cellStart.length - 1) : null;
+            for (int edge : drawnEdges) {
+                int v = tails[edge];
+                int w = graph.target(edge);
+                int c0 = column(Math.min(points.longitude(v), points.longitude(w)));
+                int c1 = column(Math.max(points.longitude(v), points.longitude(w)));
+                int r0 = row(Math.min(mercator[v], mercator[w]));
+                int r1 = row(Math.max(mercator[v], mercator[w]));
+                if ((c1 - c0 + 1) * (r1 - r0 + 1) > MAX_CELLS_PER_ARC) {
+                    if (pass == 0) {
+                        longOnes.add(edge);
+                    }
+                    continue;
+                }
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        if (pass == 0) {
+                            cellStart[r * columns + c + 1]++;
+                        } else {
+                            fill[next[r * columns + c]++] = edge;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int i = 0; i < columns * rows; i++) {
+                    cellStart[i + 1] += cellStart[i];
+                }
+                fill = new int[cellStart[columns * rows]];
+            }
+        }
+        this.cellEdges = fill;
+        this.longEdges = longOnes.toArray();
+
+        // Vertices that no drawn arc touches would never be found through the arcs, so they get
+        // a grid of their own
+        boolean[] touched = new boolean[n];
+        for (int edge : drawnEdges) {
+            touched[tails[edge]] = true;
+            touched[graph.target(edge)] = true;
+        }
+        this.looseStart = new int[columns * rows + 1];
+        for (int v = 0; v < n; v++) {
+            if (drawable(v) && !touched[v]) {
+                looseStart[cellOf(v) + 1]++;
+            }
+        }
+        for (int i = 0; i < columns * rows; i++) {
+            looseStart[i + 1] += looseStart[i];
+        }
+        this.looseVertices = new int[looseStart[columns * rows]];
+        int[] nextLoose = Arrays.copyOf(looseStart, looseStart.length - 1);
+        for (int v = 0; v < n; v++) {
+            if (drawable(v) && !touched[v]) {
+                looseVertices[nextLoose[cellOf(v)]++] = v;
+            }
+        }
+
+        int zooms = info.getTotalMapZoom() + 1;
+        this.xAtZoom = new float[zooms][];
+        this.yAtZoom = new float[zooms][];
+        this.originX = new double[zooms];
+        this.originY = new double[zooms];
+        this.edgeStamp = new int[graph.edgeCount()];
+        this.vertexStamp = new int[n];
+        for (int i = 0; i < shades.length; i++) {
+            shades[i] = (40 + i * 13) << 24;
+        }
+    }
+
+    // Method to show a graph whose vertex IDs are "longitude,latitude"; IDs that are not
+    // coordinates are parsed once, reported and left off the map
+    public static void visualize(Graph graph) {
+        CompactGraph compact = graph.toCompactGraph();
+        GeoPointSet points = new GeoPointSet(compact.vertexCount());
+        for (int v = 0; v < compact.vertexCount(); v++) {
+            String[] coordinates = compact.vertexAt(v).getId().split(",");
+            double lon = Double.NaN;
+            double lat = Double.NaN;
+            try {
+                lon = Double.parseDouble(coordinates[0]);
+                lat = Double.parseDouble(coordinates[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                System.out.println("Vertex " + compact.vertexAt(v).getId() + " has no coordinates: " + e);
+            }
+            points.add(lon, lat);
+        }
+        new MapVisualizer(compact, points).show("Graph Visualization on Map");
+    }
+
+    // Method to open a window with the map, centred on the first vertex that has coordinates
+    public JFrame show(String title) {
+        JXMapViewer mapViewer = createViewer();
+        JFrame frame = new JFrame(title);
+        frame.setLayout(new BorderLayout());
+        frame.add(mapViewer, BorderLayout.CENTER);
+        frame.setSize(800, 600);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setVisible(true);
+        return frame;
+    }
+
+    // Method to create the map component with this graph as its overlay and the usual mouse and key controls
+    public JXMapViewer createViewer() {
+        JXMapViewer mapViewer = new JXMapViewer();
+        mapViewer.setTileFactory(new DefaultTileFactory(info));
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (drawable(v)) {
+                mapViewer.setZoom(10);
+                mapViewer.setAddressLocation(new GeoPosition(points.latitude(v), points.longitude(v)));
+                break;
+            }
+        }
+        mapViewer.setOverlayPainter(new GraphPainter());
+
+        PanMouseInputListener pan = new PanMouseInputListener(mapViewer);
+        mapViewer.addMouseListener(pan);
+        mapViewer.addMouseMotionListener(pan);
+        mapViewer.addMouseWheelListener(new ZoomMouseWheelListenerCenter(mapViewer));
+        mapViewer.addKeyListener(new PanKeyListener(mapViewer));
+        mapViewer.addMouseListener(new CenterMapListener(mapViewer));
+        return mapViewer;
+    }
+
+    private boolean drawable(int vertex) {
+        return !Double.isNaN(points.longitude(vertex)) && !Double.isNaN(points.latitude(vertex));
+    }
+
+    private int column(double lon) {
+        return Math.max(0, Math.min(columns - 1, (int) ((lon - minLon) / cellWidth)));
+    }
+
+    private int row(double mercatorLatitude) {
+        return Math.max(0, Math.min(rows - 1, (int) ((mercatorLatitude - minMercator) / cellHeight)));
+    }
+
+    private int cellOf(int vertex) {
+        return row(mercator[vertex]) * columns + column(points.longitude(vertex));
+    }
+
+    // Method to get the pixel x of every vertex at a zoom level, relative to originX, projecting
+    // them on first use
+    float[] xAt(int zoom) {
+        if (xAtZoom[zoom] == null) {
+            Point2D center = info.getMapCenterInPixelsAtZoom(zoom);
+            double degreeWidth = info.getLongitudeDegreeWidthInPixels(zoom);
+            double radianWidth = info.getLongitudeRadianWidthInPixels(zoom);
+            float[] x = new float[graph.vertexCount()];
+            float[] y = new float[graph.vertexCount()];
+            for (int v = 0; v < x.length; v++) {
+                x[v] = (float) ((points.longitude(v) - minLon) * degreeWidth);
+                y[v] = (float) ((minMercator - mercator[v]) * radianWidth);
+            }
+            originX[zoom] = center.getX() + minLon * degreeWidth;
+            originY[zoom] = center.getY() - minMercator * radianWidth;
+            xAtZoom[zoom] = x;
+            yAtZoom[zoom] = y;
+        }
+        return xAtZoom[zoom];
+    }
+
+    float[] yAt(int zoom) {
+        xAt(zoom);
+        return yAtZoom[zoom];
+    }
+
+    // Method to get the grid cells under the viewport, given in world pixels at a zoom level
+    private Rectangle cellsUnder(Rectangle viewport, int zoom) {
+        Point2D center = info.getMapCenterInPixelsAtZoom(zoom);
+        double degreeWidth = info.getLongitudeDegreeWidthInPixels(zoom);
+        double radianWidth = info.getLongitudeRadianWidthInPixels(zoom);
+        int c0 = column((viewport.getMinX() - center.getX()) / degreeWidth);
+        int c1 = column((viewport.getMaxX() - center.getX()) / degreeWidth);
+        // Screen y grows downwards while the Mercator latitude grows upwards
+        int r0 = row((center.getY() - viewport.getMaxY()) / radianWidth);
+        int r1 = row((center.getY() - viewport.getMinY()) / radianWidth);
+        return new Rectangle(c0, r0, c1 - c0 + 1, r1 - r0 + 1);
+    }
+
+    private int nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(edgeStamp, 0);
+            Arrays.fill(vertexStamp, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    // Method to collect the arcs whose bounding box meets the viewport, given in world pixels at a zoom level
+    int visibleEdges(Rectangle viewport, int zoom, IntList out) {
+        out.clear();
+        Rectangle cells = cellsUnder(viewport, zoom);
+        float[] x = xAt(zoom);
+        float[] y = yAt(zoom);
+        double left = viewport.x - originX[zoom];
+        double top = viewport.y - originY[zoom];
+        double right = left + viewport.width;
+        double bottom = top + viewport.height;
+
+        int current = nextStamp();
+        for (int r = cells.y; r < cells.y + cells.height; r++) {
+            for (int c = cells.x; c < cells.x + cells.width; c++) {
+                int cell = r * columns + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int edge = cellEdges[i];
+                    if (edgeStamp[edge] != current) {
+                        edgeStamp[edge] = current;
+                        int v = tails[edge];
+                        int w = graph.target(edge);
+                        if (Math.max(x[v], x[w]) >= left && Math.min(x[v], x[w]) <= right
+                                && Math.max(y[v], y[w]) >= top && Math.min(y[v], y[w]) <= bottom) {
+                            out.add(edge);
+                        }
+                    }
+                }
+            }
+        }
+        for (int edge : longEdges) {
+            int v = tails[edge];
+            int w = graph.target(edge);
+            if (Math.max(x[v], x[w]) >= left && Math.min(x[v], x[w]) <= right
+                    && Math.max(y[v], y[w]) >= top && Math.min(y[v], y[w]) <= bottom) {
+                out.add(edge);
+            }
+        }
+        return out.size();
+    }
+
+    // Method to collect the vertices inside the viewport, stopping after limit of them; edges must
+    // hold the visible arcs of the same viewport and zoom, since every vertex with a drawn arc is
+    // the end of one of them
+    int visibleVertices(Rectangle viewport, int zoom, IntList edges, int limit, IntList out) {
+        out.clear();
+        float[] x = xAt(zoom);
+        float[] y = yAt(zoom);
+        double left = viewport.x - originX[zoom];
+        double top = viewport.y - originY[zoom];
+        double right = left + viewport.width;
+        double bottom = top + viewport.height;
+
+        int current = nextStamp();
+        for (int i = 0; i < edges.size() && out.size() < limit; i++) {
+            int edge = edges.get(i);
+            for (int end = 0; end < 2; end++) {
+                int v = end == 0 ? tails[edge] : graph.target(edge);
+                if (vertexStamp[v] != current) {
+                    vertexStamp[v] = current;
+                    if (x[v] >= left && x[v] <= right && y[v] >= top && y[v] <= bottom) {
+                        out.add(v);
+                    }
+                }
+            }
+        }
+        Rectangle cells = cellsUnder(viewport, zoom);
+        for (int r = cells.y; r < cells.y + cells.height && out.size() < limit; r++) {
+            for (int c = cells.x; c < cells.x + cells.width && out.size() < limit; c++) {
+                int cell = r * columns + c;
+                for (int i = looseStart[cell]; i < looseStart[cell + 1] && out.size() < limit; i++) {
+                    int v = looseVertices[i];
+                    if (x[v] >= left && x[v] <= right && y[v] >= top && y[v] <= bottom) {
+                        out.add(v);
+                    }
+                }
+            }
+        }
+        return out.size();
+    }
+
+    // Overlay that draws the visible part of the graph
+    private class GraphPainter implements Painter<JXMapViewer> {
+        private final IntList visible = new IntList();
+        private final IntList dots = new IntList();
+
+        @Override
+        public void paint(Graphics2D g, JXMapViewer map, int width, int height) {
+            g = (Graphics2D) g.create();
+            Rectangle viewport = map.getViewportBounds();
+            int zoom = map.getZoom();
+            float[] x = xAt(zoom);
+            float[] y = yAt(zoom);
+            // Screen position of the bounding box corner the cached positions are relative to
+            float ox = (float) (viewport.x - originX[zoom]);
+            float oy = (float) (viewport.y - originY[zoom]);
+
+            int binColumns = width / BIN_PIXELS + 1;
+            int binRows = height / BIN_PIXELS + 1;
+            if (heat == null || heat.getWidth() != binColumns || heat.getHeight() != binRows) {
+                heat = new BufferedImage(binColumns, binRows, BufferedImage.TYPE_INT_ARGB);
+                bins = new int[binColumns * binRows];
+            }
+            Arrays.fill(bins, 0);
+
+            // Long arcs are drawn as lines, short ones are counted into the bin of their midpoint
+            visibleEdges(viewport, zoom, visible);
+            int shortest = visible.size() > LINE_BUDGET ? DENSE_PIXELS : BIN_PIXELS;
+            int binned = 0;
+            // Wide strokes go through the slow shape renderer, so only few arcs get them
+            if (visible.size() <= DOT_LIMIT) {
+                g.setStroke(new BasicStroke(2));
+            }
+            g.setColor(Color.BLACK);
+            for (int i = 0; i < visible.size(); i++) {
+                int edge = visible.get(i);
+                int v = tails[edge];
+                int w = graph.target(edge);
+                float dx = x[w] - x[v];
+                float dy = y[w] - y[v];
+                if (Math.abs(dx) < shortest && Math.abs(dy) < shortest) {
+                    int bx = (int) ((x[v] + dx / 2 - ox) / BIN_PIXELS);
+                    int by = (int) ((y[v] + dy / 2 - oy) / BIN_PIXELS);
+                    if (bx >= 0 && bx < binColumns && by >= 0 && by < binRows) {
+                        bins[by * binColumns + bx]++;
+                        binned++;
+                    }
+                } else {
+                    g.drawLine((int) (x[v] - ox), (int) (y[v] - oy), (int) (x[w] - ox), (int) (y[w] - oy));
+                }
+            }
+            if (binned > 0) {
+                int[] pixels = ((DataBufferInt) heat.getRaster().getDataBuffer()).getData();
+                for (int i = 0; i < bins.length; i++) {
+                    int count = bins[i];
+                    pixels[i] = count == 0 ? 0 : shades[Math.min(shades.length - 1, 31 - Integer.numberOfLeadingZeros(count))];
+                }
+                g.drawImage(heat, 0, 0, binColumns * BIN_PIXELS, binRows * BIN_PIXELS, 0, 0, binColumns, binRows, null);
+            }
+
+            // Weights once the lines can be told apart
+            if (visible.size() <= LABEL_LIMIT) {
+                g.setColor(Color.BLUE);
+                for (int i = 0; i < visible.size(); i++) {
+                    int edge = visible.get(i);
+                    int v = tails[edge];
+                    int w = graph.target(edge);
+                    g.drawString(String.valueOf(graph.weight(edge)), (int) ((x[v] + x[w]) / 2 - ox), (int) ((y[v] + y[w]) / 2 - oy));
+                }
+            }
+
+            // Vertices as dots, and their names when there are only a few
+            int shown = visibleVertices(viewport, zoom, visible, DOT_LIMIT + 1, dots);
+            if (shown <= DOT_LIMIT) {
+                g.setColor(Color.RED);
+                for (int i = 0; i < shown; i++) {
+                    int v = dots.get(i);
+                    g.fillOval((int) (x[v] - ox) - 3, (int) (y[v] - oy) - 3, 6, 6);
+                    if (shown <= LABEL_LIMIT) {
+                        g.drawString(graph.vertexAt(v).getName(), (int) (x[v] - ox) + 4, (int) (y[v] - oy) - 4);
+                    }
+                }
+            }
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package algo.project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Graph served straight from a memory-mapped snapshot written by BinaryGraphWriter.
+// Opening the file maps its sections and makes one sequential pass over the arrays to validate them,
+// so a corrupt file fails with an IOException instead of returning wrong distances; no arrays are
+// copied onto the heap. Arcs are read from the mapped buffers, and vertex ids, names and types are
+// decoded from the string table only on access.
+// Each section is mapped on its own and must stay below 2 GB, which allows about 500 million arcs.
+public class MappedGraph implements AdjacencyView {
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int minWeight;
+    private final int maxWeight;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer stringStarts;
+    private final ByteBuffer blob;
+    private final IntBuffer idIndex;
+    private final DoubleBuffer coords; // null when the snapshot has no coordinates
+
+    private MappedGraph(FileChannel channel, ByteBuffer header, long fileSize) throws IOException {
+        if (header.getInt() != BinaryGraphWriter.MAGIC) {
+            throw new IOException("Not a graph snapshot");
+        }
+        int version = header.getInt();
+        if (version != BinaryGraphWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported graph snapshot version " + version);
+        }
+        int n = header.getInt();
+        int m = header.getInt();
+        int flags = header.getInt();
+        int headerMin = header.getInt();
+        int headerMax = header.getInt();
+        header.getInt();
+        long offsetsAt = header.getLong();
+        long targetsAt = header.getLong();
+        long weightsAt = header.getLong();
+        long stringsAt = header.getLong();
+        long idIndexAt = header.getLong();
+        long coordsAt = header.getLong();
+        long end = header.getLong();
+        if (end > fileSize) {
+            throw new IOException("Graph snapshot is truncated: expected " + end + " bytes, found " + fileSize);
+        }
+        if (n < 0 || m < 0) {
+            throw new IOException("Corrupt graph snapshot: negative vertex or arc count");
+        }
+        boolean hasCoords = (flags & BinaryGraphWriter.FLAG_COORDINATES) != 0;
+        long blobAt = stringsAt + 4L * (3L * n + 1);
+        checkSection("offsets", BinaryGraphWriter.HEADER_BYTES, offsetsAt, 4L * (n + 1L), targetsAt);
+        checkSection("targets", offsetsAt, targetsAt, 4L * m, weightsAt);
+        checkSection("weights", targetsAt, weightsAt, 4L * m, stringsAt);
+        checkSection("string starts", weightsAt, stringsAt, blobAt - stringsAt, idIndexAt);
+        checkSection("id index", stringsAt, idIndexAt, 4L * n, coordsAt);
+        checkSection("coordinates", idIndexAt, coordsAt, hasCoords ? 16L * n : 0, end);
+
+        this.vertexCount = n;
+        this.edgeCount = m;
+        this.offsets = map(channel, offsetsAt, 4L * (n + 1L)).asIntBuffer();
+        this.targets = map(channel, targetsAt, 4L * m).asIntBuffer();
+        this.weights = map(channel, weightsAt, 4L * m).asIntBuffer();
+        this.stringStarts = map(channel, stringsAt, blobAt - stringsAt).asIntBuffer();
+        int blobSize = checkStrings(stringStarts, n, idIndexAt - blobAt);
+        this.blob = map(channel, blobAt, blobSize);
+        this.idIndex = map(channel, idIndexAt, 4L * n).asIntBuffer();
+        this.coords = hasCoords ? map(channel, coordsAt, 16L * n).asDoubleBuffer() : null;
+        checkArcs(offsets, targets, n, m);
+        checkIdIndex(idIndex, n);
+
+        // Recompute the weight range rather than trusting the header, since Dijkstra and
+        // delta-stepping size their buckets from it
+        int min = m > 0 ? weights.get(0) : 0;
+        int max = min;
+        for (int e = 0; e < m; e++) {
+            min = Math.min(min, weights.get(e));
+            max = Math.max(max, weights.get(e));
+        }
+        if (min != headerMin || max != headerMax) {
+            throw new IOException("Corrupt graph snapshot: header weight range " + headerMin + ".." + headerMax
+                    + " does not match the arcs (" + min + ".." + max + ")");
+        }
+        this.minWeight = min;
+        this.maxWeight = max;
+    }
+
+    // Method to check that a section starts after the previous one and ends before the next, so
+    // corrupt positions fail here rather than mapping overlapping or out-of-file ranges
+    private static void checkSection(String name, long previousAt, long at, long size, long nextAt) throws IOException {
+        if (at < previousAt || at + size > nextAt) {
+            throw new IOException("Corrupt graph snapshot: " + name + " section at " + at + " (" + size
+                    + " bytes) is out of order");
+        }
+    }
+
+    // Method to check that the CSR arrays are consistent, so a corrupt file fails here rather than
+    // with an index out of bounds during a query
+    private static void checkArcs(IntBuffer offsets, IntBuffer targets, int n, int m) throws IOException {
+        if (offsets.get(0) != 0 || offsets.get(n) != m) {
+            throw new IOException("Corrupt graph snapshot: offsets do not span " + m + " arcs");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets.get(v) > offsets.get(v + 1)) {
+                throw new IOException("Corrupt graph snapshot: offsets decrease at vertex " + v);
+            }
+        }
+        for (int e = 0; e < m; e++) {
+            int target = targets.get(e);
+            if (target < 0 || target >= n) {
+                throw new IOException("Corrupt graph snapshot: arc " + e + " has target " + target);
+            }
+        }
+    }
+
+    // Method to check the string starts and return the blob size, which must fit before the id index
+    private static int checkStrings(IntBuffer starts, int n, long room) throws IOException {
+        if (starts.get(0) != 0) {
+            throw new IOException("Corrupt graph snapshot: string table does not start at 0");
+        }
+        for (int i = 0; i < 3 * n; i++) {
+            if (starts.get(i) > starts.get(i + 1)) {
+                throw new IOException("Corrupt graph snapshot: string starts decrease at slot " + i);
+            }
+        }
+        int size = starts.get(3 * n);
+        if (size > room) {
+            throw new IOException("Corrupt graph snapshot: string blob of " + size + " bytes overlaps the id index");
+        }
+        return size;
+    }
+
+    private static void checkIdIndex(IntBuffer idIndex, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            int handle = idIndex.get(i);
+            if (handle < 0 || handle >= n) {
+                throw new IOException("Corrupt graph snapshot: id index entry " + i + " is " + handle);
+            }
+        }
+    }
+
+    // Method to map a snapshot file; the file must not be modified while the graph is in use
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BinaryGraphWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Graph snapshot is truncated: no complete header");
+                }
+            }
+            // The mappings stay valid after the channel is closed
+            return new MappedGraph(channel, header.flip(), channel.size());
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph snapshot section of " + size + " bytes is too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int firstEdge(int vertex) {
+        return offsets.get(vertex);
+    }
+
+    @Override
+    public int endEdge(int vertex) {
+        return offsets.get(vertex + 1);
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets.get(edge);
+    }
+
+    @Override
+    public int weight(int edge) {
+        return weights.get(edge);
+    }
+
+    @Override
+    public int minWeight() {
+        return minWeight;
+    }
+
+    public int maxWeight() {
+        return maxWeight;
+    }
+
+    // Method to get the handle of the vertex with the same id, or -1; a mapped graph has no Vertex
+    // objects of its own, so vertices are matched by id
+    @Override
+    public int indexOf(Vertex vertex) {
+        return indexOfId(vertex.getId());
+    }
+
+    // Method to binary-search the id index for a vertex id, or -1 if there is none
+    public int indexOfId(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int handle = idIndex.get(middle);
+            int cmp = compareString(3 * handle, key);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return handle;
+            }
+        }
+        return -1;
+    }
+
+    // Method to create a Vertex from the string table
+    @Override
+    public Vertex vertexAt(int index) {
+        return new Vertex(getId(index), getName(index), getType(index));
+    }
+
+    public String getId(int vertex) {
+        return string(3 * vertex);
+    }
+
+    public String getName(int vertex) {
+        return string(3 * vertex + 1);
+    }
+
+    public String getType(int vertex) {
+        return string(3 * vertex + 2);
+    }
+
+    public boolean hasCoordinates() {
+        return coords != null;
+    }
+
+    public double longitude(int vertex) {
+        return coords.get(2 * vertex);
+    }
+
+    public double latitude(int vertex) {
+        return coords.get(2 * vertex + 1);
+    }
+
+    // Method to copy the coordinates into a GeoPointSet for the geospatial code
+    public GeoPointSet toGeoPointSet() {
+        if (coords == null) {
+            throw new IllegalStateException("The graph snapshot has no coordinates");
+        }
+        GeoPointSet points = new GeoPointSet(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            points.add(longitude(v), latitude(v));
+        }
+        return points;
+    }
+
+    // Method to copy the whole graph onto the heap, for code that needs a CompactGraph
+    public CompactGraph toCompactGraph() {
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertices[v] = vertexAt(v);
+        }
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertices);
+        for (int v = 0; v < vertexCount; v++) {
+            for (int e = firstEdge(v), end = endEdge(v); e < end; e++) {
+                builder.addEdge(v, target(e), weight(e));
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph(" + vertexCount + " vertices, " + edgeCount + " arcs)";
+    }
+
+    private String string(int slot) {
+        int start = stringStarts.get(slot);
+        byte[] bytes = new byte[stringStarts.get(slot + 1) - start];
+        blob.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Method to compare a stored string with a key by unsigned bytes, as the writer sorted the ids
+    private int compareString(int slot, byte[] key) {
+        int start = stringStarts.get(slot);
+        int length = stringStarts.get(slot + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(blob.get(start + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
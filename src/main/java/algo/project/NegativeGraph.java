@@ -3,18 +3,21 @@ package algo.project;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class NegativeGraph {
 
     // Method to create a graph from a CSV file
+    // Every pair of vertices without a CSV edge gets a 0-weight edge, so the result has O(V^2) edges.
+    // Only use it when a materialised Graph is really needed for a small input; the engines take the
+    // CompleteGraphView of createImplicitNegativeGraphFromCSV
     public static Graph createNegativeGraphFromCSV(String filePath, Graph positiveGraph) {
-        Graph negativeGraph = new Graph(); // Create a new graph instance to store the negative graph
+        // Materialise the implicit completion; the hashed edge index makes this O(V^2) instead of O(V^3)
+        return createImplicitNegativeGraphFromCSV(filePath, positiveGraph).toGraph();
+    }
 
-        // Add all vertices to the ArrayList
-        // Create a new ArrayList to hold Vertex objects
-        ArrayList<Vertex> vertices = new ArrayList<>(positiveGraph.getVertices()); // Get all vertices from the positive graph
+    // Method to create the same graph from a CSV file without storing the 0-weight completion edges
+    public static CompleteGraphView createImplicitNegativeGraphFromCSV(String filePath, Graph positiveGraph) {
+        Graph negativeGraph = new Graph(); // Create a new graph instance to store the CSV edges
 
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) { // Open the CSV file for reading
             String line; // Variable to hold each line read from the file
@@ -34,9 +37,9 @@ public class NegativeGraph {
                     String toId = parts[1].trim(); // Get the 'to' vertex ID
                     int weight = Integer.parseInt(parts[2].trim()); // Parse the weight as an integer
 
-                    // Find the vertices by their IDs
-                    Vertex fromVertex = findVertexById(vertices, fromId); // Find the 'from' vertex in the list
-                    Vertex toVertex = findVertexById(vertices, toId); // Find the 'to' vertex in the list
+                    // Find the vertices by their IDs in the registry of the positive graph
+                    Vertex fromVertex = positiveGraph.getVertex(fromId); // Find the 'from' vertex
+                    Vertex toVertex = positiveGraph.getVertex(toId); // Find the 'to' vertex
 
                     // Add an edge between the vertices if they are found
                     if (fromVertex != null && toVertex != null) {
@@ -48,42 +51,8 @@ public class NegativeGraph {
             System.out.println("IOException occurred: " + e); // Print an error message if an exception occurs
         }
 
-        // Ensure all pairs of vertices have bidirectional edges
-        List<Vertex> selectedVertices = negativeGraph.getVertices(); // Get all vertices in the negative graph
-        for (Vertex v1 : selectedVertices) { // Iterate over each vertex
-            for (Vertex v2 : selectedVertices) { // Compare with every other vertex
-                if (!v1.equals(v2)) { // Avoid self-loops
-                    // Check if there is an edge from v1 to v2
-                    boolean hasEdgeFromV1ToV2 = negativeGraph.checkEdgeExistence(v1, v2);
-                    // Check if there is an edge from v2 to v1
-                    boolean hasEdgeFromV2ToV1 = negativeGraph.checkEdgeExistence(v2, v1);
-
-                    // If no edge exists from v1 to v2, add an edge with weight 0
-                    if (!hasEdgeFromV1ToV2) {
-                        negativeGraph.addEdge(v1, v2, 0);
-                    }
-                    // If no edge exists from v2 to v1, add an edge with weight 0
-                    if (!hasEdgeFromV2ToV1) {
-                        negativeGraph.addEdge(v2, v1, 0);
-                    }
-                }
-            }
-        }
-
-        // Return the created graph
-        return negativeGraph;
-    }
-
-    // Method to find a vertex by its ID
-    private static Vertex findVertexById(List<Vertex> vertices, String id) {
-        for (Vertex vertex : vertices) { // Iterate over the list of vertices
-            // Check if the vertex ID matches
-            if (vertex.getId().equals(id)) {
-                return vertex; // Return the vertex if IDs match
-            }
-        }
-        // Return null if vertex is not found
-        return null;
+        // All pairs of vertices without a CSV edge are connected implicitly with weight 0
+        return new CompleteGraphView(negativeGraph.toCompactGraph(), 0);
     }
 
     // Method to convert custom graph to GraphStream graph for visualization
@@ -111,6 +80,21 @@ public class NegativeGraph {
         return gsGraph;
     }
 
+    // Method to show only a path of the implicit graph and its k-hop neighbourhood along the explicit
+    // arcs, so the V^2 completion arcs are never built; path arcs that are implicit get the default weight
+    public static org.graphstream.graph.Graph toGraphStreamGraph(CompleteGraphView view, int[] path, int hops, int maxVertices) {
+        GraphStreamExporter exporter = new GraphStreamExporter(view.getOverrides()).withDefaultWeight(view.getDefaultWeight());
+        org.graphstream.graph.Graph gsGraph = exporter.newGraph("NegativeGraph");
+        exporter.pathNeighbourhood(path, hops, maxVertices);
+        return gsGraph;
+    }
+
+    // Method to print the vertices and explicit edges of the implicit graph, and the number of implicit edges
+    public static void printGraph(CompleteGraphView view) {
+        printGraph(view.getOverrides().toGraph());
+        System.out.println("Plus " + view.implicitArcCount() + " implicit edges of weight " + view.getDefaultWeight());
+    }
+
     // Method to print vertices and edges of the graph
     public static void printGraph(Graph graph) {
         System.out.println("Vertices:");
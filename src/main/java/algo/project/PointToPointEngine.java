@@ -0,0 +1,17 @@
+package algo.project;
+
+// Common interface of the engines that answer single source-target queries on vertex handles
+public interface PointToPointEngine {
+
+    // Method to get the shortest distance, or DijkstraEngine.UNREACHABLE
+    long distance(int source, int target);
+
+    // Method to get the vertex handles on a shortest path, or null if the target is unreachable
+    int[] path(int source, int target);
+
+    // Number of vertices settled by the last query of the calling thread, to compare search effort
+    int lastSettledCount();
+
+    // Query measurements of the engine; recording is off until enabled on the returned object
+    EngineMetrics getMetrics();
+}
@@ -4,22 +4,28 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 public class PositiveGraph {
 
     private Graph graph;
+    private GeoPointSet geoPoints;
+    private final Random random;
 
-    // Constructor to initialize the PositiveGraph with an empty Graph
+    // Constructor to initialize the PositiveGraph with an empty Graph and unseeded edge weights
     public PositiveGraph() {
         this.graph = new Graph();
+        this.random = new Random();
+    }
+
+    // Constructor to initialize the PositiveGraph with edge weights drawn from a seed, so runs can be reproduced
+    public PositiveGraph(long seed) {
+        this.graph = new Graph();
+        this.random = new Random(seed);
     }
 
     // Method to generate a grid graph with vertices from the CSV file and random edge weights between 80 and 100
     public Graph generatePositiveGraphFromCSV(String filePath) {
-        Map<String, Vertex> vertexMap = new HashMap<>();
         ArrayList<Vertex> vertices = new ArrayList<>();
         int pickupCount = 1;
         int dropoffCount = 1;
@@ -48,8 +54,9 @@ public class PositiveGraph {
                     String pickupLabel = String.format("Pickup(%.3f,%.3f)", pickupLatitude, pickupLongitude);
                     String dropoffLabel = String.format("Dropoff(%.3f,%.3f)", dropoffLatitude, dropoffLongitude);
 
-                    Vertex pickupVertex = vertexMap.computeIfAbsent(pickupId, id -> new Vertex(pickupId, pickupLabel, "Pickup"));
-                    Vertex dropoffVertex = vertexMap.computeIfAbsent(dropoffId, id -> new Vertex(dropoffId, dropoffLabel, "Dropoff"));
+                    // The graph's registry interns the IDs, so a repeated ID gets the existing vertex
+                    Vertex pickupVertex = graph.addVertex(pickupId, pickupLabel, VertexType.PICKUP.getLabel());
+                    Vertex dropoffVertex = graph.addVertex(dropoffId, dropoffLabel, VertexType.DROPOFF.getLabel());
 
                     vertices.add(pickupVertex);
                     vertices.add(dropoffVertex);
@@ -62,28 +69,24 @@ public class PositiveGraph {
         }
 
         // Add 2 garages
-        Vertex garage1 = new Vertex("Garage1", "Garage(40.0,-73.0)", "Garage");
-        Vertex garage2 = new Vertex("Garage2", "Garage(41.0,-73.5)", "Garage");
+        Vertex garage1 = graph.addVertex("Garage1", "Garage(40.0,-73.0)", VertexType.GARAGE.getLabel());
+        Vertex garage2 = graph.addVertex("Garage2", "Garage(41.0,-73.5)", VertexType.GARAGE.getLabel());
         vertices.add(garage1);
         vertices.add(garage2);
 
         // Debug print statement
         System.out.println("Added garages: " + garage1 + ", " + garage2);
 
-        // Add garages to vertexMap
-        vertexMap.put(garage1.getId(), garage1);
-        vertexMap.put(garage2.getId(), garage2);
-
         // Ensure we have exactly 100 vertices
+        int distinctCount = graph.getRegistry().size();
         while (vertices.size() < 100) {
-            vertices.add(vertices.get(vertices.size() % vertexMap.size()));
+            vertices.add(vertices.get(vertices.size() % distinctCount));
         }
 
         // Convert the list to a 2D array for the grid structure
         Vertex[][] grid = new Vertex[10][10];
         for (int i = 0; i < 100; i++) {
             grid[i / 10][i % 10] = vertices.get(i);
-            graph.addVertex(vertices.get(i));
         }
 
         // Add edges to create a grid-like structure
@@ -95,8 +98,60 @@ public class PositiveGraph {
         return graph;
     }
 
+    // Method to load the pickup and dropoff coordinates of every trip in the CSV file, without a record limit.
+    // The pickup of trip i is point 2i and its dropoff is point 2i+1.
+    public GeoPointSet loadTripPoints(String filePath) {
+        try {
+            return new TaxiTripReader().readPoints(filePath);
+        } catch (IOException e) {
+            System.out.println("IOException occurred: " + e);
+            return new GeoPointSet(0);
+        }
+    }
+
+    // Method to generate a geospatial graph from every trip in the CSV file.
+    // Each pickup, dropoff and the 2 garages is connected to its k nearest neighbours, and the arc
+    // weights are haversine distances in meters, so shortest paths follow the real geometry.
+    public CompactGraph generateGeoGraphFromCSV(String filePath, int k) {
+        GeoPointSet points = loadTripPoints(filePath);
+
+        // Add 2 garages at the same places as in the grid graph
+        points.add(-73.0, 40.0);
+        points.add(-73.5, 41.0);
+        Vertex[] tripVertices = GeoGraphBuilder.tripVertices(points);
+        int garageStart = points.size() - 2;
+        tripVertices[garageStart] = new Vertex("Garage1", "Garage(40.0,-73.0)", VertexType.GARAGE.getLabel());
+        tripVertices[garageStart + 1] = new Vertex("Garage2", "Garage(41.0,-73.5)", VertexType.GARAGE.getLabel());
+
+        this.geoPoints = points;
+        return new GeoGraphBuilder(points, tripVertices).buildKNearest(k);
+    }
+
+    // Method to generate the geospatial graph of the CSV file with travel times that follow the time
+    // of day. Speeds are learned from the trips' timestamps and distances per 1 km cell and hour;
+    // if the file cannot be read again, every arc is driven at the default speed all day.
+    public TimeDependentGraph generateTimeDependentGraphFromCSV(String filePath, int k) {
+        CompactGraph geoGraph = generateGeoGraphFromCSV(filePath, k);
+        return generateTimeDependentGraphFromCSV(filePath, geoGraph, geoPoints);
+    }
+
+    // Method to add time-of-day travel times to a geospatial graph that was already built from the
+    // same CSV file; only the trip timestamps are read, the points and arcs are reused
+    public TimeDependentGraph generateTimeDependentGraphFromCSV(String filePath, CompactGraph geoGraph, GeoPointSet points) {
+        try {
+            return TimeDependentGraph.fromTrips(geoGraph, points, filePath, 1000, TimeDependentGraph.DEFAULT_BUCKETS);
+        } catch (IOException e) {
+            System.out.println("IOException occurred: " + e);
+            return TimeDependentGraph.uniform(geoGraph, TimeDependentGraph.ProfileBuilder.DEFAULT_SPEED);
+        }
+    }
+
+    // Coordinates of the vertices of the last geospatial graph, indexed by vertex handle
+    public GeoPointSet getGeoPoints() {
+        return geoPoints;
+    }
+
     private void addGridEdges(Vertex[][] grid) {
-        Random random = new Random();
         for (int i = 0; i < grid.length; i++) {
             for (int j = 0; j < grid[i].length; j++) {
                 Vertex fromVertex = grid[i][j];
@@ -142,6 +197,15 @@ public class PositiveGraph {
         return gsGraph;
     }
 
+    // Method to show only a path of a geospatial graph and its k-hop neighbourhood, at the trip
+    // coordinates of the last geospatial graph; large graphs stay inspectable this way
+    public org.graphstream.graph.Graph toGraphStreamGraph(CompactGraph geoGraph, int[] path, int hops, int maxVertices) {
+        GraphStreamExporter exporter = new GraphStreamExporter(geoGraph).withPoints(geoPoints);
+        org.graphstream.graph.Graph gsGraph = exporter.newGraph("PositiveGraph");
+        exporter.pathNeighbourhood(path, hops, maxVertices);
+        return gsGraph;
+    }
+
     // Method to print vertices and edges of the graph
     public void printGraph(Graph graph) {
         System.out.println("Vertices:");
@@ -0,0 +1,9 @@
+package algo.project;
+
+// Callback for every query recorded by an EngineMetrics, for logging or exporting to other
+// metrics systems. It runs on the querying thread after the search, so it should be quick.
+public interface QueryListener {
+
+    // Method called with the measurements of a finished query; the stats object is reused afterwards
+    void queryCompleted(QueryStats stats);
+}
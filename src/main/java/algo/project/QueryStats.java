@@ -0,0 +1,84 @@
+package algo.project;
+
+// Measurements of one query, handed to QueryListener callbacks.
+// Each thread reuses a single instance per engine, so a listener must copy what it wants to keep
+// before it returns; the values are overwritten by the next query of the same thread.
+public final class QueryStats {
+
+    String engine;
+    int source;
+    int target;
+    long distance;
+    long verticesSettled;
+    long edgesRelaxed;
+    long heapPushes;
+    long decreaseKeys;
+    long startNanos;
+    long nanos;
+    long startAllocatedBytes;
+    long allocatedBytes;
+
+    QueryStats() {
+    }
+
+    // Name of the engine that ran the query
+    public String getEngine() {
+        return engine;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    // Target handle, or -1 for a single-source search
+    public int getTarget() {
+        return target;
+    }
+
+    // Distance found, or DijkstraEngine.UNREACHABLE
+    public long getDistance() {
+        return distance;
+    }
+
+    public long getVerticesSettled() {
+        return verticesSettled;
+    }
+
+    // Number of arcs scanned from settled vertices
+    public long getEdgesRelaxed() {
+        return edgesRelaxed;
+    }
+
+    public long getHeapPushes() {
+        return heapPushes;
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    // Wall time of the search in nanoseconds
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Bytes allocated by the searching thread during the search, or -1 if the JVM cannot tell
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    // Method to add the counters of a search state
+    void add(SearchState state) {
+        verticesSettled += state.settled;
+        edgesRelaxed += state.relaxed;
+        heapPushes += state.heap.pushCount();
+        decreaseKeys += state.heap.decreaseKeyCount();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats(" + engine + " " + source + " -> " + target + ", distance " + distance
+                + ", settled " + verticesSettled + ", relaxed " + edgesRelaxed + ", pushes " + heapPushes
+                + ", decrease-keys " + decreaseKeys + ", " + nanos + " ns, " + allocatedBytes + " bytes)";
+    }
+}
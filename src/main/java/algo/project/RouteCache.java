@@ -0,0 +1,317 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Cache of shortest-path results in front of a point-to-point engine.
+// Entries are keyed by (source, target, graph version). When the Graph changes, its version moves on,
+// the cache freezes the graph again, builds a fresh engine and drops every entry of the old version.
+// Paths are kept as varint-encoded differences between consecutive vertex handles, which usually
+// needs one or two bytes per vertex instead of four.
+// The entries are spread over independently locked stripes, each an access-ordered LinkedHashMap that
+// evicts its least recently used entries once its share of the byte budget is used up.
+public class RouteCache {
+
+    // Rough size of an entry without its path: key, value, map node and list links
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Graph graph;
+    private final Function<CompactGraph, ? extends PointToPointEngine> engineFactory;
+    private final Stripe[] stripes;
+    private final long stripeBudget;
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Constructor with the graph to follow, how to build an engine for a frozen graph and the byte budget
+    public RouteCache(Graph graph, Function<CompactGraph, ? extends PointToPointEngine> engineFactory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache budget must be positive, got " + maxBytes);
+        }
+        this.graph = graph;
+        this.engineFactory = engineFactory;
+        // A power of two of at least four stripes per core keeps lock contention low
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeBudget = Math.max(1, maxBytes / stripeCount);
+        this.snapshot = new Snapshot(graph.getVersion(), graph.toCompactGraph(), engineFactory);
+    }
+
+    // Method to get the frozen graph whose vertex handles the int queries use
+    public CompactGraph getGraph() {
+        return currentSnapshot().graph;
+    }
+
+    // Method to get the shortest distance between two vertex handles, or DijkstraEngine.UNREACHABLE
+    public long distance(int source, int target) {
+        Snapshot current = currentSnapshot();
+        Key key = new Key(source, target, current.version);
+        Stripe stripe = stripeOf(key);
+        Entry entry = stripe.get(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.distance;
+        }
+        misses.increment();
+        long distance = current.engine.distance(source, target);
+        stripe.put(key, new Entry(distance, null));
+        return distance;
+    }
+
+    // Method to get the vertex handles on a shortest path, or null if the target is unreachable
+    public int[] path(int source, int target) {
+        Snapshot current = currentSnapshot();
+        Key key = new Key(source, target, current.version);
+        Stripe stripe = stripeOf(key);
+        Entry entry = stripe.get(key);
+        if (entry != null && (entry.path != null || entry.distance == DijkstraEngine.UNREACHABLE)) {
+            hits.increment();
+            return entry.path == null ? null : decodePath(entry.path);
+        }
+        // A miss, or an entry that only holds the distance; either way the engine has to search
+        misses.increment();
+        int[] path = current.engine.path(source, target);
+        long distance = path == null ? DijkstraEngine.UNREACHABLE : current.graph.pathLength(path);
+        stripe.put(key, new Entry(distance, path == null ? null : encodePath(path)));
+        return path;
+    }
+
+    // Method to get the shortest distance between two vertices, or DijkstraEngine.UNREACHABLE
+    public long distance(Vertex source, Vertex target) {
+        CompactGraph compact = getGraph();
+        int s = compact.indexOf(source);
+        int t = compact.indexOf(target);
+        return s < 0 || t < 0 ? DijkstraEngine.UNREACHABLE : distance(s, t);
+    }
+
+    // Method to get the vertices on a shortest path, or an empty list if the target is unreachable
+    public List<Vertex> path(Vertex source, Vertex target) {
+        CompactGraph compact = getGraph();
+        int s = compact.indexOf(source);
+        int t = compact.indexOf(target);
+        List<Vertex> result = new ArrayList<>();
+        int[] handles = s < 0 || t < 0 ? null : path(s, t);
+        if (handles != null) {
+            for (int handle : handles) {
+                result.add(compact.vertexAt(handle));
+            }
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Method to get the share of lookups answered from the cache, or 0 before the first lookup
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    // Method to count the cached entries
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    // Method to get the estimated memory held by the cached entries
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    // Method to drop every entry; the counters are kept
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.map.clear();
+                stripe.bytes = 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RouteCache(" + size() + " entries, " + sizeInBytes() + " bytes, hits " + getHitCount()
+                + ", misses " + getMissCount() + ", evictions " + getEvictionCount() + ")";
+    }
+
+    // Method to get the snapshot for the current graph version, rebuilding it after a mutation
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        long version = graph.getVersion();
+        if (current.version == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current.version != version) {
+                current = new Snapshot(version, graph.toCompactGraph(), engineFactory);
+                snapshot = current;
+                // Entries of older versions can never be hit again
+                clear();
+            }
+            return current;
+        }
+    }
+
+    private Stripe stripeOf(Key key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // Method to encode a path as zigzag varints of the differences between consecutive handles
+    static byte[] encodePath(int[] path) {
+        byte[] buffer = new byte[path.length * 5];
+        int length = 0;
+        int previous = 0;
+        for (int handle : path) {
+            int delta = handle - previous;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[length++] = (byte) zigzag;
+            previous = handle;
+        }
+        byte[] encoded = new byte[length];
+        System.arraycopy(buffer, 0, encoded, 0, length);
+        return encoded;
+    }
+
+    // Method to decode a path written by encodePath
+    static int[] decodePath(byte[] encoded) {
+        IntList path = new IntList(encoded.length);
+        int previous = 0;
+        int i = 0;
+        while (i < encoded.length) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[i++];
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            path.add(previous);
+        }
+        return path.toArray();
+    }
+
+    // Frozen graph and engine for one graph version
+    private static final class Snapshot {
+        final long version;
+        final CompactGraph graph;
+        final PointToPointEngine engine;
+
+        Snapshot(long version, CompactGraph graph, Function<CompactGraph, ? extends PointToPointEngine> engineFactory) {
+            this.version = version;
+            this.graph = graph;
+            this.engine = engineFactory.apply(graph);
+        }
+    }
+
+    private static final class Key {
+        final int source;
+        final int target;
+        final long version;
+
+        Key(int source, int target, long version) {
+            this.source = source;
+            this.target = target;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return source == other.source && target == other.target && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return (source * 31 + target) * 31 + Long.hashCode(version);
+        }
+    }
+
+    private static final class Entry {
+        final long distance;
+        final byte[] path; // null when only the distance was asked for, or the target is unreachable
+
+        Entry(long distance, byte[] path) {
+            this.distance = distance;
+            this.path = path;
+        }
+
+        int bytes() {
+            return ENTRY_OVERHEAD_BYTES + (path == null ? 0 : path.length + 16);
+        }
+    }
+
+    // One lock-protected part of the cache with its own LRU order and byte count
+    private final class Stripe {
+        final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        long bytes;
+
+        synchronized Entry get(Key key) {
+            return map.get(key);
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            // A result computed on a snapshot that has been replaced meanwhile could never be hit,
+            // and the clear that followed the replacement may already be past this stripe. The
+            // snapshot is published before that clear, so checking it here leaves no stale entry.
+            if (key.version != snapshot.version) {
+                return;
+            }
+            Entry old = map.put(key, entry);
+            if (old != null) {
+                bytes -= old.bytes();
+            }
+            bytes += entry.bytes();
+            // Evict least recently used entries, but never the one just added
+            Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator();
+            while (bytes > stripeBudget && map.size() > 1) {
+                Map.Entry<Key, Entry> eldest = it.next();
+                bytes -= eldest.getValue().bytes();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package algo.project;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Headless HTTP service for shortest-path queries on the JDK's built-in server; it needs no GUI.
+// Vertices are named by their IDs, and every answer is JSON:
+//   GET  /health                               status, graph size and load
+//   GET  /route?from=A&to=B[&path=false]       distance and path of one query
+//   POST /route[?path=false]                   a batch, one "from,to" line per query
+//   GET  /matrix?sources=A,B&targets=C,D       distance table of the two lists
+//   POST /matrix                               the same, with sources and targets as two lines
+// Unreachable distances and paths are null. Every request runs on its own virtual thread when the
+// JDK has them (21 and later); older JDKs use a bounded pool whose full queue makes the accepting
+// thread serve the request itself, which slows down accepting new connections. Requests in
+// progress are capped by a semaphore; once it is exhausted the server answers 503 at once instead
+// of queueing, so clients see the overload and can back off.
+public class RoutingServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    // Largest batch and table a single request may ask for
+    static final int MAX_BATCH = 10_000;
+    static final long MAX_MATRIX_CELLS = 1_000_000;
+    // Largest request body, ample for a full batch of vertex IDs
+    static final int MAX_BODY_BYTES = 1 << 20;
+    // Batches at least this large are answered in parallel
+    private static final int PARALLEL_BATCH = 64;
+    private static final int BACKLOG = 1024;
+
+    static {
+        // The built-in server writes the headers and the body of an answer separately; without
+        // TCP_NODELAY the body waits for the client's delayed ACK, which caps keep-alive
+        // connections at a few dozen answers per second each. It also closes keep-alive
+        // connections beyond 200 idle ones, which load tests with many clients run into.
+        // The properties are read once, when the first server is created, and values given on
+        // the command line win.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+        }
+    }
+
+    private final CompactGraph graph;
+    private final PointToPointEngine engine;
+    private final ManyToManyEngine matrixEngine;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // Constructor with the graph, the engine for single queries and the engine for tables
+    public RoutingServer(CompactGraph graph, PointToPointEngine engine, ManyToManyEngine matrixEngine, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one request must be allowed in flight, got " + maxInFlight);
+        }
+        this.graph = graph;
+        this.engine = engine;
+        this.matrixEngine = matrixEngine;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    // Method to serve a graph with a contraction hierarchy, which answers both kinds of query fastest
+    public static RoutingServer withHierarchy(CompactGraph graph) {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        return new RoutingServer(graph, hierarchy, new ManyToManyEngine(hierarchy), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    // Method to start listening on a port of every interface; port 0 picks a free one
+    public synchronized RoutingServer start(int port) throws IOException {
+        return start(new InetSocketAddress(port));
+    }
+
+    public synchronized RoutingServer start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already running on port " + getPort());
+        }
+        HttpServer created = HttpServer.create(address, BACKLOG);
+        created.createContext("/health", exchange -> handle(exchange, this::health));
+        created.createContext("/route", exchange -> handle(exchange, this::route));
+        created.createContext("/matrix", exchange -> handle(exchange, this::matrix));
+        executor = newRequestExecutor();
+        created.setExecutor(executor);
+        created.start();
+        server = created;
+        return this;
+    }
+
+    // Method to stop accepting requests and wait up to the given seconds for the running ones
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    // Number of requests being answered right now
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    // Method to create a virtual-thread-per-request executor, or a bounded pool on JDKs without
+    // virtual threads. The factory is looked up reflectively so the code still compiles for 17.
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+            return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(BACKLOG), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    // Answer of one endpoint: an HTTP status and a JSON body
+    private interface Endpoint {
+        Response serve(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        final int status;
+        final String json;
+
+        Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    // Thrown by the endpoints for requests that cannot be answered; the message is sent to the client
+    private static final class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Method to run an endpoint under a permit, turning rejected requests into error answers
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try {
+            if (!permits.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, new Response(503, error("Too many requests in flight")));
+                return;
+            }
+            Response response;
+            try {
+                response = endpoint.serve(exchange);
+            } catch (RequestException e) {
+                response = new Response(e.status, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                // One line per failure in the server log; clients only learn that the request failed
+                System.out.println("Request " + exchange.getRequestURI() + " failed: " + e);
+                response = new Response(500, error("Internal server error"));
+            } finally {
+                permits.release();
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response health(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"status\":\"ok\",\"vertices\":").append(graph.vertexCount())
+                .append(",\"edges\":").append(graph.edgeCount())
+                .append(",\"inFlight\":").append(inFlight())
+                .append(",\"maxInFlight\":").append(maxInFlight)
+                .append(",\"queries\":").append(engine.getMetrics().getQueryCount())
+                .append('}');
+        return new Response(200, json.toString());
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String query = exchange.getRequestURI().getRawQuery();
+        boolean withPath = !"false".equals(parameter(query, "path"));
+        if ("GET".equals(method)) {
+            int source = vertex(required(query, "from"));
+            int target = vertex(required(query, "to"));
+            StringBuilder json = new StringBuilder(256);
+            answer(json, source, target, withPath);
+            return new Response(200, json.toString());
+        }
+        requireMethod(exchange, "POST");
+
+        // Resolve the whole batch first, so a bad line rejects it before any work is done
+        List<String> lines = lines(readBody(exchange));
+        if (lines.size() > MAX_BATCH) {
+            throw new RequestException(413, "A batch may hold at most " + MAX_BATCH + " queries, got " + lines.size());
+        }
+        int[] sources = new int[lines.size()];
+        int[] targets = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                throw new RequestException(400, "Line " + (i + 1) + " is not \"from,to\": " + line);
+            }
+            sources[i] = vertex(line.substring(0, comma).trim());
+            targets[i] = vertex(line.substring(comma + 1).trim());
+        }
+        String[] answers = new String[lines.size()];
+        IntStream indices = IntStream.range(0, answers.length);
+        (answers.length >= PARALLEL_BATCH ? indices.parallel() : indices).forEach(i -> {
+            StringBuilder json = new StringBuilder(128);
+            answer(json, sources[i], targets[i], withPath);
+            answers[i] = json.toString();
+        });
+        StringBuilder json = new StringBuilder(answers.length * 64 + 16);
+        json.append("{\"routes\":[");
+        for (int i = 0; i < answers.length; i++) {
+            json.append(i > 0 ? "," : "").append(answers[i]);
+        }
+        json.append("]}");
+        return new Response(200, json.toString());
+    }
+
+    private Response matrix(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String sourceList;
+        String targetList;
+        if ("GET".equals(method)) {
+            String query = exchange.getRequestURI().getRawQuery();
+            sourceList = required(query, "sources");
+            targetList = required(query, "targets");
+        } else {
+            requireMethod(exchange, "POST");
+            List<String> lines = lines(readBody(exchange));
+            if (lines.size() != 2) {
+                throw new RequestException(400, "Expected a line of sources and a line of targets, got " + lines.size() + " lines");
+            }
+            sourceList = lines.get(0);
+            targetList = lines.get(1);
+        }
+        int[] sources = vertices(sourceList);
+        int[] targets = vertices(targetList);
+        if ((long) sources.length * targets.length > MAX_MATRIX_CELLS) {
+            throw new RequestException(413, "A table may hold at most " + MAX_MATRIX_CELLS + " distances, got "
+                    + sources.length + " x " + targets.length);
+        }
+        DistanceMatrix table = matrixEngine.matrix(sources, targets);
+        StringBuilder json = new StringBuilder(32 + (sources.length + targets.length) * 16 + sources.length * targets.length * 8);
+        json.append("{\"sources\":");
+        appendIds(json, sources);
+        json.append(",\"targets\":");
+        appendIds(json, targets);
+        json.append(",\"distances\":[");
+        for (int i = 0; i < sources.length; i++) {
+            json.append(i > 0 ? ",[" : "[");
+            for (int j = 0; j < targets.length; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                appendDistance(json, table.get(i, j));
+            }
+            json.append(']');
+        }
+        json.append("]}");
+        return new Response(200, json.toString());
+    }
+
+    // Method to answer one query with a single search; the distance of a path is its length
+    private void answer(StringBuilder json, int source, int target, boolean withPath) {
+        if (withPath) {
+            int[] path = engine.path(source, target);
+            appendRoute(json, source, target, path == null ? DijkstraEngine.UNREACHABLE : graph.pathLength(path), path, true);
+        } else {
+            appendRoute(json, source, target, engine.distance(source, target), null, false);
+        }
+    }
+
+    private void appendRoute(StringBuilder json, int source, int target, long distance, int[] path, boolean withPath) {
+        json.append("{\"from\":");
+        appendString(json, graph.vertexAt(source).getId());
+        json.append(",\"to\":");
+        appendString(json, graph.vertexAt(target).getId());
+        json.append(",\"distance\":");
+        appendDistance(json, distance);
+        if (withPath) {
+            json.append(",\"path\":");
+            if (path == null) {
+                json.append("null");
+            } else {
+                appendIds(json, path);
+            }
+        }
+        json.append('}');
+    }
+
+    private void appendIds(StringBuilder json, int[] handles) {
+        json.append('[');
+        for (int i = 0; i < handles.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, graph.vertexAt(handles[i]).getId());
+        }
+        json.append(']');
+    }
+
+    private static void appendDistance(StringBuilder json, long distance) {
+        if (distance == DijkstraEngine.UNREACHABLE) {
+            json.append("null");
+        } else {
+            json.append(distance);
+        }
+    }
+
+    // Method to append a JSON string literal, escaping quotes, backslashes and control characters
+    static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c == '\n') {
+                json.append("\\n");
+            } else if (c == '\r') {
+                json.append("\\r");
+            } else if (c == '\t') {
+                json.append("\\t");
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16);
+        json.append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new RequestException(405, "Method " + exchange.getRequestMethod() + " is not allowed");
+        }
+    }
+
+    // Method to find the handle of a vertex ID, answering 404 if there is none
+    private int vertex(String id) {
+        int handle = graph.indexOf(id);
+        if (handle < 0) {
+            throw new RequestException(404, "Unknown vertex " + id);
+        }
+        return handle;
+    }
+
+    // Method to resolve a comma-separated list of vertex IDs
+    private int[] vertices(String list) {
+        List<String> ids = new ArrayList<>();
+        for (String id : list.split(",")) {
+            if (!id.trim().isEmpty()) {
+                ids.add(id.trim());
+            }
+        }
+        int[] handles = new int[ids.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = vertex(ids.get(i));
+        }
+        return handles;
+    }
+
+    // Method to get a decoded query parameter, or null if it is missing
+    static String parameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                return equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static String required(String rawQuery, String name) {
+        String value = parameter(rawQuery, name);
+        if (value == null || value.isEmpty()) {
+            throw new RequestException(400, "Missing query parameter " + name);
+        }
+        return value;
+    }
+
+    // Method to read a request body of at most MAX_BODY_BYTES; larger bodies are refused before
+    // they are read, or as soon as they run past the limit when the client sent no length
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            long bytes;
+            try {
+                bytes = Long.parseLong(length.trim());
+            } catch (NumberFormatException e) {
+                throw new RequestException(400, "Invalid Content-Length: " + length);
+            }
+            if (bytes > MAX_BODY_BYTES) {
+                throw new RequestException(413, "A request body may hold at most " + MAX_BODY_BYTES + " bytes, got " + bytes);
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new RequestException(413, "A request body may hold at most " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Method to split a body into its non-blank lines
+    private static List<String> lines(String body) {
+        List<String> lines = new ArrayList<>();
+        for (String line : body.split("\r?\n")) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
+    }
+
+    // Method to start the server from the command line: [port] [csv file] [k nearest neighbours].
+    // The geospatial graph of the trips is built and contracted once at startup.
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String csvFilePath = args.length > 1 ? args[1] : "shortest-path/trimmed_file.csv";
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        CompactGraph graph = new PositiveGraph().generateGeoGraphFromCSV(csvFilePath, k);
+        RoutingServer routingServer = withHierarchy(graph).start(port);
+        System.out.println("Serving " + graph + " on port " + routingServer.getPort());
+    }
+}
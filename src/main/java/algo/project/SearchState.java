@@ -0,0 +1,99 @@
+package algo.project;
+
+import java.util.Arrays;
+
+// Per-thread scratch space for a single-source search: tentative distances, predecessors and a heap.
+// Entries are only valid when their stamp matches the current search, so starting a new search
+// is O(1) instead of clearing arrays that are as large as the graph.
+class SearchState {
+    long[] dist;
+    int[] pred;
+    int[] stamp;
+    int[] marks; // caller flags, set when equal to currentStamp; allocated by the first mark
+    int currentStamp;
+    int settled; // vertices taken off the heap in the current search
+    int relaxed; // arcs scanned in the current search
+    final IndexedMinHeap heap;
+
+    SearchState(int vertexCount) {
+        this.dist = new long[vertexCount];
+        this.pred = new int[vertexCount];
+        this.stamp = new int[vertexCount];
+        this.heap = new IndexedMinHeap(vertexCount);
+    }
+
+    // Method to grow the arrays when the state is reused for a larger graph
+    void ensureCapacity(int vertexCount) {
+        if (vertexCount <= dist.length) {
+            return;
+        }
+        dist = Arrays.copyOf(dist, vertexCount);
+        pred = Arrays.copyOf(pred, vertexCount);
+        stamp = Arrays.copyOf(stamp, vertexCount);
+        if (marks != null) {
+            marks = Arrays.copyOf(marks, vertexCount);
+        }
+        heap.ensureCapacity(vertexCount);
+    }
+
+    // Method to invalidate every entry from the previous search
+    void reset() {
+        heap.clear();
+        settled = 0;
+        relaxed = 0;
+        currentStamp++;
+        if (currentStamp == 0) {
+            // The stamp wrapped around, so old entries could look current again
+            Arrays.fill(stamp, 0);
+            if (marks != null) {
+                Arrays.fill(marks, 0);
+            }
+            currentStamp = 1;
+        }
+    }
+
+    boolean isReached(int vertex) {
+        return stamp[vertex] == currentStamp;
+    }
+
+    // Method to get the tentative distance, or DijkstraEngine.UNREACHABLE if the vertex was not reached
+    long distanceOf(int vertex) {
+        return stamp[vertex] == currentStamp ? dist[vertex] : DijkstraEngine.UNREACHABLE;
+    }
+
+    void reach(int vertex, long distance, int predecessor) {
+        stamp[vertex] = currentStamp;
+        dist[vertex] = distance;
+        pred[vertex] = predecessor;
+    }
+
+    // Method to flag a vertex for the current search, such as a target still to be settled;
+    // returns false if it was flagged already. Flags are cleared by reset, like the labels.
+    boolean mark(int vertex) {
+        if (marks == null) {
+            marks = new int[stamp.length];
+        }
+        if (marks[vertex] == currentStamp) {
+            return false;
+        }
+        marks[vertex] = currentStamp;
+        return true;
+    }
+
+    boolean isMarked(int vertex) {
+        return marks != null && marks[vertex] == currentStamp;
+    }
+
+    // Method to walk the predecessor chain back from the target into a new array
+    int[] extractPath(int target) {
+        int length = 1;
+        for (int v = target; pred[v] >= 0; v = pred[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; v = pred[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,422 @@
+package algo.project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Streaming reader for the NYC taxi trip CSV (the format of trimmed_file.csv) with no record limit.
+// The file is memory-mapped in newline-aligned chunks that are parsed in parallel. The pickup and
+// dropoff coordinates (columns 5, 6, 9 and 10), and for timed reads the pickup and dropoff times
+// and trip distance (columns 1, 2 and 4), are parsed straight from the mapped bytes, so no String
+// is created per row and the heap use does not grow with the file size.
+public class TaxiTripReader {
+
+    // Column positions in the taxi trip CSV
+    static final int PICKUP_DATETIME = 1;
+    static final int DROPOFF_DATETIME = 2;
+    static final int TRIP_DISTANCE = 4;
+    static final int PICKUP_LONGITUDE = 5;
+    static final int PICKUP_LATITUDE = 6;
+    static final int DROPOFF_LONGITUDE = 9;
+    static final int DROPOFF_LATITUDE = 10;
+    static final int MIN_FIELDS = 11;
+    static final int MAX_FIELDS = 32;
+
+    private static final int DEFAULT_CHUNK_BYTES = 32 << 20;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // Callback for one trip. It is called from several threads at once, in no particular order;
+    // trip is the zero-based index of the data row in the file.
+    public interface TripConsumer {
+        void accept(long trip, double pickupLongitude, double pickupLatitude, double dropoffLongitude, double dropoffLatitude);
+    }
+
+    // Callback for one trip with its times, like TripConsumer. Times are milliseconds since
+    // 1970-01-01 00:00 of the local wall-clock time in the file, so their remainder modulo a day is
+    // the time of day; the distance is in miles as in the file.
+    public interface TimedTripConsumer {
+        void accept(long trip, long pickupMillis, long dropoffMillis, double tripDistanceMiles,
+                    double pickupLongitude, double pickupLatitude, double dropoffLongitude, double dropoffLatitude);
+    }
+
+    // Parser of one line given the start of each field; returns false if the row is skipped
+    private interface RowHandler {
+        boolean handle(ByteBuffer buffer, int start, int end, int[] fieldStarts, long row);
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    // Constructor using the common pool and 32 MB chunks
+    public TaxiTripReader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    // Constructor with an explicit pool and chunk size
+    public TaxiTripReader(ForkJoinPool pool, int chunkBytes) {
+        if (chunkBytes < 1024) {
+            throw new IllegalArgumentException("Chunks must be at least 1 KB, got " + chunkBytes);
+        }
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    // Method to stream every valid trip of the file to the consumer; returns the number of trips passed on.
+    // Rows with fewer than 11 fields or unparsable coordinates are skipped but still keep their index.
+    public long read(String filePath, TripConsumer consumer) throws IOException {
+        return readRows(filePath, (buffer, start, end, fieldStarts, row) -> parseTrip(buffer, start, end, fieldStarts, row, consumer));
+    }
+
+    // Method to stream every valid trip with its pickup and dropoff times and distance to the consumer.
+    // Rows are also skipped when a time or the distance cannot be parsed.
+    public long readTimed(String filePath, TimedTripConsumer consumer) throws IOException {
+        return readRows(filePath, (buffer, start, end, fieldStarts, row) -> parseTimedTrip(buffer, start, end, fieldStarts, row, consumer));
+    }
+
+    private long readRows(String filePath, RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            long[] firstRow = countRows(channel, chunks);
+            return parse(channel, chunks, firstRow, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Method to load all trip coordinates: the pickup of trip i is point 2i and its dropoff is point 2i+1.
+    // Skipped rows are removed, so the points of valid trips are packed together.
+    public GeoPointSet readPoints(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            long[] firstRow = countRows(channel, chunks);
+            long rows = firstRow[chunks.size()];
+            if (2 * rows > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many trips for one point set: " + rows);
+            }
+            GeoPointSet points = new GeoPointSet((int) (2 * rows));
+            points.growToCapacity();
+            // Slots of skipped rows keep NaN and are removed afterwards
+            pool.submit(() -> IntStream.range(0, (int) (2 * rows)).parallel()
+                    .forEach(i -> points.set(i, Double.NaN, Double.NaN))).join();
+            TripConsumer consumer = (trip, pickupLon, pickupLat, dropoffLon, dropoffLat) -> {
+                points.set((int) (2 * trip), pickupLon, pickupLat);
+                points.set((int) (2 * trip + 1), dropoffLon, dropoffLat);
+            };
+            parse(channel, chunks, firstRow, (buffer, start, end, fieldStarts, row) -> parseTrip(buffer, start, end, fieldStarts, row, consumer));
+            points.removeMissing();
+            return points;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Method to cut the file after the header line into [start, end) ranges that end on a newline
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long start = nextLineStart(channel, 0, size);
+        List<long[]> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            if (end < size) {
+                end = nextLineStart(channel, end, size);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    // Method to find the position just after the next newline at or after the given position
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Method to count the rows of every chunk in parallel; firstRow[c] is the index of the first row of chunk c
+    private long[] countRows(FileChannel channel, List<long[]> chunks) {
+        long[] counts = new long[chunks.size() + 1];
+        pool.submit(() -> IntStream.range(0, chunks.size()).parallel().forEach(c -> {
+            MappedByteBuffer buffer = map(channel, chunks.get(c));
+            long rows = 0;
+            int lineStart = 0;
+            int limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    if (i > lineStart) {
+                        rows++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (limit > lineStart) {
+                rows++;
+            }
+            counts[c + 1] = rows;
+        })).join();
+        for (int c = 0; c < chunks.size(); c++) {
+            counts[c + 1] += counts[c];
+        }
+        return counts;
+    }
+
+    // Method to parse every chunk in parallel and hand each line to the row handler
+    private long parse(FileChannel channel, List<long[]> chunks, long[] firstRow, RowHandler handler) {
+        long[] valid = new long[chunks.size()];
+        pool.submit(() -> IntStream.range(0, chunks.size()).parallel().forEach(c -> {
+            MappedByteBuffer buffer = map(channel, chunks.get(c));
+            int[] fieldStarts = new int[MAX_FIELDS + 1];
+            long row = firstRow[c];
+            int lineStart = 0;
+            int limit = buffer.limit();
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                if (lineEnd > lineStart) {
+                    if (handler.handle(buffer, lineStart, lineEnd, fieldStarts, row)) {
+                        valid[c]++;
+                    }
+                    row++;
+                }
+                lineStart = lineEnd + 1;
+            }
+        })).join();
+        long total = 0;
+        for (long count : valid) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Method to parse the coordinate columns of one line; returns false if the row is skipped
+    private static boolean parseTrip(ByteBuffer buffer, int start, int end, int[] fieldStarts, long row, TripConsumer consumer) {
+        int fields = splitFields(buffer, start, end, fieldStarts);
+        if (fields < MIN_FIELDS) {
+            return false;
+        }
+        double pickupLon = parseDouble(buffer, fieldStarts[PICKUP_LONGITUDE], fieldStarts[PICKUP_LONGITUDE + 1] - 1);
+        double pickupLat = parseDouble(buffer, fieldStarts[PICKUP_LATITUDE], fieldStarts[PICKUP_LATITUDE + 1] - 1);
+        double dropoffLon = parseDouble(buffer, fieldStarts[DROPOFF_LONGITUDE], fieldStarts[DROPOFF_LONGITUDE + 1] - 1);
+        double dropoffLat = parseDouble(buffer, fieldStarts[DROPOFF_LATITUDE], fieldStarts[DROPOFF_LATITUDE + 1] - 1);
+        if (Double.isNaN(pickupLon) || Double.isNaN(pickupLat) || Double.isNaN(dropoffLon) || Double.isNaN(dropoffLat)) {
+            return false;
+        }
+        consumer.accept(row, pickupLon, pickupLat, dropoffLon, dropoffLat);
+        return true;
+    }
+
+    // Method to parse the time, distance and coordinate columns of one line; returns false if the row is skipped
+    private static boolean parseTimedTrip(ByteBuffer buffer, int start, int end, int[] fieldStarts, long row,
+                                          TimedTripConsumer consumer) {
+        int fields = splitFields(buffer, start, end, fieldStarts);
+        if (fields < MIN_FIELDS) {
+            return false;
+        }
+        long pickupMillis = parseDateTime(buffer, fieldStarts[PICKUP_DATETIME], fieldStarts[PICKUP_DATETIME + 1] - 1);
+        long dropoffMillis = parseDateTime(buffer, fieldStarts[DROPOFF_DATETIME], fieldStarts[DROPOFF_DATETIME + 1] - 1);
+        double distance = parseDouble(buffer, fieldStarts[TRIP_DISTANCE], fieldStarts[TRIP_DISTANCE + 1] - 1);
+        double pickupLon = parseDouble(buffer, fieldStarts[PICKUP_LONGITUDE], fieldStarts[PICKUP_LONGITUDE + 1] - 1);
+        double pickupLat = parseDouble(buffer, fieldStarts[PICKUP_LATITUDE], fieldStarts[PICKUP_LATITUDE + 1] - 1);
+        double dropoffLon = parseDouble(buffer, fieldStarts[DROPOFF_LONGITUDE], fieldStarts[DROPOFF_LONGITUDE + 1] - 1);
+        double dropoffLat = parseDouble(buffer, fieldStarts[DROPOFF_LATITUDE], fieldStarts[DROPOFF_LATITUDE + 1] - 1);
+        if (pickupMillis == Long.MIN_VALUE || dropoffMillis == Long.MIN_VALUE || Double.isNaN(distance)
+                || Double.isNaN(pickupLon) || Double.isNaN(pickupLat) || Double.isNaN(dropoffLon) || Double.isNaN(dropoffLat)) {
+            return false;
+        }
+        consumer.accept(row, pickupMillis, dropoffMillis, distance, pickupLon, pickupLat, dropoffLon, dropoffLat);
+        return true;
+    }
+
+    // Method to parse a timestamp such as 2016-01-01 00:00:00 (or with a T) from bytes [start, end)
+    // into milliseconds since 1970-01-01 00:00 of the same clock. Returns Long.MIN_VALUE if it is malformed.
+    static long parseDateTime(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start != 19 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || (buffer.get(start + 10) != ' ' && buffer.get(start + 10) != 'T')
+                || buffer.get(start + 13) != ':' || buffer.get(start + 16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + 5, 2);
+        int day = digits(buffer, start + 8, 2);
+        int hour = digits(buffer, start + 11, 2);
+        int minute = digits(buffer, start + 14, 2);
+        int second = digits(buffer, start + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000;
+    }
+
+    // Method to parse a fixed number of decimal digits, or -1 if one of them is not a digit
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Method to count the days from 1970-01-01 to a date of the proleptic Gregorian calendar
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    // Method to record where each comma-separated field starts; fieldStarts[i + 1] - 1 is where field i ends.
+    // Returns the number of fields, counting at most MAX_FIELDS.
+    static int splitFields(ByteBuffer buffer, int start, int end, int[] fieldStarts) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        int fields = 0;
+        fieldStarts[0] = start;
+        for (int i = start; i < end && fields < MAX_FIELDS - 1; i++) {
+            if (buffer.get(i) == ',') {
+                fieldStarts[++fields] = i + 1;
+            }
+        }
+        fieldStarts[++fields] = end + 1;
+        return fields;
+    }
+
+    // Method to parse a decimal number such as -73.99037170410156 or 1.5e3 from bytes [start, end).
+    // The digits are collected in a long and scaled once, which is within one ulp of Double.parseDouble.
+    // Returns NaN if the field is empty or not a number.
+    static double parseDouble(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+        boolean negative = false;
+        byte first = buffer.get(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0; // power of ten applied to the mantissa
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        int i = start;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (seenPoint) {
+                        scale--;
+                    }
+                } else if (!seenPoint) {
+                    // Digits past the precision of a long still shift the integer part
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        if (i < end) {
+            byte b = buffer.get(i);
+            if (b != 'e' && b != 'E') {
+                return Double.NaN;
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            if (i >= end) {
+                return Double.NaN;
+            }
+            int exponent = 0;
+            for (; i < end; i++) {
+                b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    return Double.NaN;
+                }
+                exponent = Math.min(exponent * 10 + (b - '0'), 1000);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        double value;
+        if (scale == 0) {
+            value = mantissa;
+        } else if (scale < 0 && scale >= -22) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else if (scale > 0 && scale <= 22) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else {
+            value = mantissa * Math.pow(10, scale);
+        }
+        return negative ? -value : value;
+    }
+
+    // Method to map one chunk of the file read-only
+    private static MappedByteBuffer map(FileChannel channel, long[] chunk) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package algo.project;
+
+// Earliest-arrival search on a TimeDependentGraph for a given departure time.
+// The tentative label of a vertex is its arrival time, and an arc is relaxed with its arrival
+// function at the moment the search leaves its tail. As the graph is FIFO, Dijkstra's label
+// setting stays exact. With vertex coordinates, the A* variant adds a lower bound on the remaining
+// time: the haversine distance to the target at the fastest pace of any profile, which can never
+// overestimate because every arc is at least as long as the straight line between its ends.
+// Times are absolute milliseconds, as returned by TaxiTripReader; only their time of day matters
+// to the profiles.
+public class TimeDependentDijkstraEngine {
+
+    private final TimeDependentGraph graph;
+    private final GeoPointSet points; // null without the A* bound
+    private final ThreadLocal<SearchState> states;
+    private final EngineMetrics metrics;
+
+    // Constructor for a plain time-dependent Dijkstra search
+    public TimeDependentDijkstraEngine(TimeDependentGraph graph) {
+        this(graph, null, "Time-dependent Dijkstra");
+    }
+
+    private TimeDependentDijkstraEngine(TimeDependentGraph graph, GeoPointSet points, String name) {
+        this.graph = graph;
+        this.points = points;
+        int vertexCount = graph.vertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(vertexCount));
+        this.metrics = new EngineMetrics(name);
+    }
+
+    // Method to create an A* engine bounded by the haversine distance between the vertex coordinates
+    public static TimeDependentDijkstraEngine aStar(TimeDependentGraph graph, GeoPointSet points) {
+        if (points.size() != graph.vertexCount()) {
+            throw new IllegalArgumentException("Got " + points.size() + " points for " + graph.vertexCount() + " vertices");
+        }
+        return new TimeDependentDijkstraEngine(graph, points, "Time-dependent A*");
+    }
+
+    public TimeDependentGraph getGraph() {
+        return graph;
+    }
+
+    // Method to get the earliest arrival time at the target when leaving the source at the given
+    // time, or DijkstraEngine.UNREACHABLE
+    public long earliestArrival(int source, int target, long departureMillis) {
+        return search(source, target, departureMillis).distanceOf(target);
+    }
+
+    // Method to get the shortest travel time in milliseconds for the departure time, or DijkstraEngine.UNREACHABLE
+    public long travelTime(int source, int target, long departureMillis) {
+        long arrival = earliestArrival(source, target, departureMillis);
+        return arrival == DijkstraEngine.UNREACHABLE ? arrival : arrival - departureMillis;
+    }
+
+    // Method to get the vertex handles on a fastest path for the departure time, or null if unreachable
+    public int[] path(int source, int target, long departureMillis) {
+        SearchState state = search(source, target, departureMillis);
+        return state.isReached(target) ? state.extractPath(target) : null;
+    }
+
+    public int lastSettledCount() {
+        return states.get().settled;
+    }
+
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Method to run the search; the heap key is the arrival time plus the bound on the time left
+    private SearchState search(int source, int target, long departureMillis) {
+        QueryStats stats = metrics.begin();
+        SearchState state = states.get();
+        state.reset();
+        IndexedMinHeap heap = state.heap;
+        CompactGraph lengths = graph.getLengths();
+        state.reach(source, departureMillis, -1);
+        heap.push(source, departureMillis + bound(source, target));
+
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            state.settled++;
+            if (v == target) {
+                break;
+            }
+            long time = state.dist[v];
+            int first = lengths.firstEdge(v);
+            int end = lengths.endEdge(v);
+            state.relaxed += end - first;
+            for (int e = first; e < end; e++) {
+                int w = lengths.target(e);
+                long candidate = graph.arrival(e, time);
+                if (!state.isReached(w)) {
+                    state.reach(w, candidate, v);
+                    heap.push(w, candidate + bound(w, target));
+                } else if (candidate < state.dist[w]) {
+                    // The bound is consistent, so a vertex that improves is still queued
+                    state.dist[w] = candidate;
+                    state.pred[w] = v;
+                    heap.decreaseKey(w, candidate + bound(w, target));
+                }
+            }
+        }
+        if (stats != null) {
+            metrics.end(stats, source, target, target >= 0 ? state.distanceOf(target) : DijkstraEngine.UNREACHABLE, state);
+        }
+        return state;
+    }
+
+    // Lower bound on the travel time in milliseconds from a vertex to the target
+    private long bound(int vertex, int target) {
+        if (points == null || target < 0) {
+            return 0;
+        }
+        // Shrink the distance slightly so floating-point rounding can never make it overestimate
+        return (long) (points.haversineMeters(vertex, target) * (1 - 1e-9) * graph.minPace() / 1000);
+    }
+}
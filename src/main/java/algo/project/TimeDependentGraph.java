@@ -0,0 +1,323 @@
+package algo.project;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Graph whose arc travel times depend on the time of day, so one graph serves every hour.
+// The topology and arc lengths (meters) come from a CompactGraph. The day is cut into equal buckets,
+// and a speed profile holds one pace (microseconds per meter) per bucket; profiles are shared by
+// many arcs, and every arc only stores the index of its profile. The travel time of an arc is
+// its length times the pace, taken at the middle of each bucket and interpolated linearly in
+// between, so it is a periodic piecewise-linear function of the departure time.
+// The memory on top of the topology is one int per arc plus profiles x buckets ints, instead of
+// a full weight array for every hour.
+// Arrival times honour the FIFO property (leaving later never arrives earlier): where the
+// interpolated travel time falls faster than time passes, waiting for a later departure is used.
+public class TimeDependentGraph {
+
+    public static final long MILLIS_PER_DAY = 86_400_000L;
+    public static final int DEFAULT_BUCKETS = 24;
+
+    private final CompactGraph lengths;
+    private final int buckets;
+    private final long bucketMillis;
+    private final int[] paces; // profile * buckets + bucket, in microseconds per meter
+    private final int[] arcProfiles;
+    private final int minPace;
+
+    // Constructor from arc lengths, the flattened profile paces and the profile of every arc
+    public TimeDependentGraph(CompactGraph lengths, int buckets, int[] paces, int[] arcProfiles) {
+        if (buckets < 1 || MILLIS_PER_DAY % buckets != 0) {
+            throw new IllegalArgumentException("The bucket count must divide a day in whole milliseconds, got " + buckets);
+        }
+        if (paces.length == 0 || paces.length % buckets != 0) {
+            throw new IllegalArgumentException("Got " + paces.length + " paces for " + buckets + " buckets per profile");
+        }
+        if (arcProfiles.length != lengths.edgeCount()) {
+            throw new IllegalArgumentException("Got " + arcProfiles.length + " arc profiles for " + lengths.edgeCount() + " arcs");
+        }
+        if (lengths.minWeight() < 0) {
+            throw new IllegalArgumentException("Arc lengths must be non-negative, found " + lengths.minWeight());
+        }
+        int profiles = paces.length / buckets;
+        for (int profile : arcProfiles) {
+            if (profile < 0 || profile >= profiles) {
+                throw new IllegalArgumentException("Arc profile " + profile + " is outside 0.." + (profiles - 1));
+            }
+        }
+        int min = Integer.MAX_VALUE;
+        for (int pace : paces) {
+            if (pace <= 0) {
+                throw new IllegalArgumentException("Paces must be positive, got " + pace);
+            }
+            min = Math.min(min, pace);
+        }
+        this.lengths = lengths;
+        this.buckets = buckets;
+        this.bucketMillis = MILLIS_PER_DAY / buckets;
+        this.paces = paces.clone();
+        this.arcProfiles = arcProfiles.clone();
+        this.minPace = min;
+    }
+
+    // Method to create a graph where every arc is driven at the same speed all day
+    public static TimeDependentGraph uniform(CompactGraph lengths, double metersPerSecond) {
+        return new TimeDependentGraph(lengths, 1, new int[]{paceOf(metersPerSecond)}, new int[lengths.edgeCount()]);
+    }
+
+    // Method to derive the speed profiles from the trips of a taxi CSV file. The points are the
+    // vertex coordinates of the lengths graph, such as PositiveGraph.getGeoPoints().
+    public static TimeDependentGraph fromTrips(CompactGraph lengths, GeoPointSet points, String filePath,
+                                               double cellMeters, int buckets) throws IOException {
+        ProfileBuilder builder = new ProfileBuilder(points, cellMeters, buckets);
+        new TaxiTripReader().readTimed(filePath, builder);
+        return builder.build(lengths, points);
+    }
+
+    // Method to convert a speed into a pace in microseconds per meter
+    static int paceOf(double metersPerSecond) {
+        return (int) Math.max(1, Math.round(1_000_000 / metersPerSecond));
+    }
+
+    // Method to get the time of day of an absolute time, in milliseconds since midnight
+    public static long timeOfDay(long millis) {
+        return Math.floorMod(millis, MILLIS_PER_DAY);
+    }
+
+    public CompactGraph getLengths() {
+        return lengths;
+    }
+
+    public int vertexCount() {
+        return lengths.vertexCount();
+    }
+
+    public int bucketCount() {
+        return buckets;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int profileCount() {
+        return paces.length / buckets;
+    }
+
+    public int profileOf(int edge) {
+        return arcProfiles[edge];
+    }
+
+    // Pace of a profile in a bucket, in microseconds per meter
+    public int pace(int profile, int bucket) {
+        return paces[profile * buckets + bucket];
+    }
+
+    // Smallest pace of all profiles, which turns a distance into a lower bound on the travel time
+    public int minPace() {
+        return minPace;
+    }
+
+    // Method to get the travel time in milliseconds of an arc when leaving at the given time
+    public long travelTime(int edge, long departureMillis) {
+        int row = arcProfiles[edge] * buckets;
+        long length = lengths.weight(edge);
+        // Breakpoints are at the middle of every bucket
+        long offset = Math.floorMod(departureMillis - bucketMillis / 2, MILLIS_PER_DAY);
+        int bucket = (int) (offset / bucketMillis);
+        long into = offset - bucket * bucketMillis;
+        long from = millisFor(length, paces[row + bucket]);
+        long to = millisFor(length, paces[row + (bucket + 1 == buckets ? 0 : bucket + 1)]);
+        return from + Math.floorDiv((to - from) * into, bucketMillis);
+    }
+
+    // Method to get the earliest arrival time at the head of an arc when ready to leave at the given
+    // time. Leaving at once is compared with waiting for each later breakpoint, as the arrival time
+    // is linear between breakpoints; breakpoints after the best arrival cannot do better.
+    public long arrival(int edge, long departureMillis) {
+        long best = departureMillis + travelTime(edge, departureMillis);
+        long into = Math.floorMod(departureMillis - bucketMillis / 2, bucketMillis);
+        long breakpoint = departureMillis + bucketMillis - into;
+        for (int i = 0; i < buckets && breakpoint < best; i++, breakpoint += bucketMillis) {
+            best = Math.min(best, breakpoint + travelTime(edge, breakpoint));
+        }
+        return best;
+    }
+
+    private static long millisFor(long meters, int pace) {
+        return (meters * pace + 999) / 1000;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeDependentGraph(" + lengths.vertexCount() + " vertices, " + lengths.edgeCount() + " arcs, "
+                + profileCount() + " profiles x " + buckets + " buckets)";
+    }
+
+    // Accumulates taxi trips into speed profiles per grid cell and time bucket. A trip counts for
+    // the cell of its pickup and the bucket of its pickup time. Cells with too few trips in a bucket
+    // fall back to all trips in that bucket, then to all trips, then to DEFAULT_SPEED. Only cells
+    // whose trips change their profile get one of their own; all other arcs share the citywide one.
+    // Trips can be added from several threads at once.
+    public static class ProfileBuilder implements TaxiTripReader.TimedTripConsumer {
+
+        // Trips that are too short, too long or too fast are most likely recording errors
+        static final long MIN_TRIP_MILLIS = 60_000;
+        static final long MAX_TRIP_MILLIS = 3 * 3_600_000;
+        static final double MIN_SPEED = 0.5;
+        static final double MAX_SPEED = 40;
+        static final double DEFAULT_SPEED = 5;
+        static final int MIN_SAMPLES = 5;
+        private static final double METERS_PER_MILE = 1609.344;
+        private static final double METERS_PER_DEGREE = GeoPointSet.EARTH_RADIUS_METERS * Math.PI / 180;
+        private static final int MAX_CELLS_PER_AXIS = 512;
+
+        private final int buckets;
+        private final long bucketMillis;
+        private final double minLongitude;
+        private final double minLatitude;
+        private final double metersPerLongitude;
+        private final double cellMeters;
+        private final int columns;
+        private final int rows;
+        // Row 0 holds all trips, row cell + 1 the trips of one cell, with one column per bucket
+        private final AtomicLongArray meters;
+        private final AtomicLongArray millis;
+        private final AtomicLongArray counts;
+        private final AtomicLong accepted = new AtomicLong();
+
+        // Constructor for a grid of square cells over the bounding box of the points
+        public ProfileBuilder(GeoPointSet points, double cellMeters, int buckets) {
+            if (!(cellMeters > 0)) {
+                throw new IllegalArgumentException("Cell size must be positive, got " + cellMeters);
+            }
+            if (buckets < 1 || MILLIS_PER_DAY % buckets != 0) {
+                throw new IllegalArgumentException("The bucket count must divide a day in whole milliseconds, got " + buckets);
+            }
+            double minLon = Double.POSITIVE_INFINITY;
+            double maxLon = Double.NEGATIVE_INFINITY;
+            double minLat = Double.POSITIVE_INFINITY;
+            double maxLat = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < points.size(); i++) {
+                minLon = Math.min(minLon, points.longitude(i));
+                maxLon = Math.max(maxLon, points.longitude(i));
+                minLat = Math.min(minLat, points.latitude(i));
+                maxLat = Math.max(maxLat, points.latitude(i));
+            }
+            if (points.size() == 0) {
+                minLon = maxLon = minLat = maxLat = 0;
+            }
+            this.buckets = buckets;
+            this.bucketMillis = MILLIS_PER_DAY / buckets;
+            this.minLongitude = minLon;
+            this.minLatitude = minLat;
+            this.metersPerLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians((minLat + maxLat) / 2));
+            double width = (maxLon - minLon) * metersPerLongitude;
+            double height = (maxLat - minLat) * METERS_PER_DEGREE;
+            // Grow the cells when the box is so large that the grid would not fit the cap
+            this.cellMeters = Math.max(cellMeters, Math.max(width, height) / MAX_CELLS_PER_AXIS);
+            this.columns = (int) (width / this.cellMeters) + 1;
+            this.rows = (int) (height / this.cellMeters) + 1;
+            int size = (columns * rows + 1) * buckets;
+            this.meters = new AtomicLongArray(size);
+            this.millis = new AtomicLongArray(size);
+            this.counts = new AtomicLongArray(size);
+        }
+
+        // Method to add one trip; it is ignored if its duration or speed is implausible
+        @Override
+        public void accept(long trip, long pickupMillis, long dropoffMillis, double tripDistanceMiles,
+                           double pickupLongitude, double pickupLatitude, double dropoffLongitude, double dropoffLatitude) {
+            long duration = dropoffMillis - pickupMillis;
+            double distance = tripDistanceMiles * METERS_PER_MILE;
+            if (duration < MIN_TRIP_MILLIS || duration > MAX_TRIP_MILLIS) {
+                return;
+            }
+            double speed = distance * 1000 / duration;
+            if (speed < MIN_SPEED || speed > MAX_SPEED) {
+                return;
+            }
+            int bucket = (int) (timeOfDay(pickupMillis) / bucketMillis);
+            int cell = cellOf(pickupLongitude, pickupLatitude);
+            add(bucket, Math.round(distance), duration);
+            add((cell + 1) * buckets + bucket, Math.round(distance), duration);
+            accepted.incrementAndGet();
+        }
+
+        private void add(int index, long tripMeters, long tripMillis) {
+            meters.addAndGet(index, tripMeters);
+            millis.addAndGet(index, tripMillis);
+            counts.incrementAndGet(index);
+        }
+
+        // Number of trips that passed the filters so far
+        public long acceptedTrips() {
+            return accepted.get();
+        }
+
+        // Method to find the grid cell of a coordinate; points outside the box go to the nearest edge cell
+        int cellOf(double longitude, double latitude) {
+            int column = (int) ((longitude - minLongitude) * metersPerLongitude / cellMeters);
+            int row = (int) ((latitude - minLatitude) * METERS_PER_DEGREE / cellMeters);
+            column = Math.max(0, Math.min(columns - 1, column));
+            row = Math.max(0, Math.min(rows - 1, row));
+            return row * columns + column;
+        }
+
+        // Method to turn the trips into profiles and give every arc the profile of its tail's cell
+        public TimeDependentGraph build(CompactGraph lengths, GeoPointSet points) {
+            if (points.size() != lengths.vertexCount()) {
+                throw new IllegalArgumentException("Got " + points.size() + " points for " + lengths.vertexCount() + " vertices");
+            }
+            int cells = columns * rows;
+            int[] global = new int[buckets];
+            long allMeters = 0;
+            long allMillis = 0;
+            long allCount = 0;
+            for (int b = 0; b < buckets; b++) {
+                allMeters += meters.get(b);
+                allMillis += millis.get(b);
+                allCount += counts.get(b);
+            }
+            int fallback = allCount >= MIN_SAMPLES ? paceOfTrips(allMeters, allMillis) : paceOf(DEFAULT_SPEED);
+            for (int b = 0; b < buckets; b++) {
+                global[b] = counts.get(b) >= MIN_SAMPLES ? paceOfTrips(meters.get(b), millis.get(b)) : fallback;
+            }
+
+            // Profile 0 is the citywide one; a cell gets its own only where it differs
+            IntList paceList = new IntList();
+            for (int pace : global) {
+                paceList.add(pace);
+            }
+            int[] cellProfiles = new int[cells];
+            int[] row = new int[buckets];
+            for (int cell = 0; cell < cells; cell++) {
+                boolean own = false;
+                for (int b = 0; b < buckets; b++) {
+                    int index = (cell + 1) * buckets + b;
+                    row[b] = counts.get(index) >= MIN_SAMPLES ? paceOfTrips(meters.get(index), millis.get(index)) : global[b];
+                    own |= row[b] != global[b];
+                }
+                if (own) {
+                    cellProfiles[cell] = paceList.size() / buckets;
+                    for (int pace : row) {
+                        paceList.add(pace);
+                    }
+                }
+            }
+
+            int[] arcProfiles = new int[lengths.edgeCount()];
+            for (int v = 0; v < lengths.vertexCount(); v++) {
+                int profile = cellProfiles[cellOf(points.longitude(v), points.latitude(v))];
+                Arrays.fill(arcProfiles, lengths.firstEdge(v), lengths.endEdge(v), profile);
+            }
+            return new TimeDependentGraph(lengths, buckets, paceList.toArray(), arcProfiles);
+        }
+
+        private static int paceOfTrips(long tripMeters, long tripMillis) {
+            return (int) Math.max(1, Math.round(tripMillis * 1000.0 / Math.max(1, tripMeters)));
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package algo.project;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Pickup-and-delivery tour for one vehicle: leave a garage, serve every trip by visiting its pickup
+// before its dropoff, and finish at a garage, for the lowest total distance in a precomputed matrix.
+// Every worker of the pool builds its own tour by cheapest insertion of the trips in a random
+// order, then improves it by local search until the time budget runs out:
+//   2-opt     reverse a stretch that contains no whole trip
+//   or-opt    move a stretch of one to three stops elsewhere
+//   relocate  take out the pickup and dropoff of a trip and insert them again at their best places
+// Each move is priced from the few legs it changes (a reversal uses prefix sums of the legs in both
+// directions, as the matrix need not be symmetric), so only improving moves touch the tour.
+// At a local optimum a worker removes a few random trips and inserts them again, and a worker that
+// stops finding better tours starts again from the best one found by any worker.
+// The matrix is copied into an array of (2 + 2 x trips)^2 longs, which suits hundreds of stops.
+public class TourOptimizer {
+
+    // Random trips to take out and insert again when a worker is stuck in a local optimum
+    private static final int MAX_RUIN_TRIPS = 8;
+    // Perturbations without a new best tour after which a worker starts from the shared best
+    private static final int STALL_LIMIT = 200;
+
+    private final int nodeCount;
+    private final long[] cost; // node x node, with unreachable legs replaced by a penalty
+    private final long penalty;
+    private final int[] stops; // matrix index of every node
+    private final int[] handles; // vertex handle of every node, or null for a bare matrix
+    private long seed = 1;
+
+    // Constructor for a square matrix over the stops: the tour leaves startDepot, visits pickups[i]
+    // before dropoffs[i] for every trip i and ends at endDepot, which may be the same stop
+    public TourOptimizer(DistanceMatrix matrix, int startDepot, int endDepot, int[] pickups, int[] dropoffs) {
+        this(matrix, startDepot, endDepot, pickups, dropoffs, null);
+    }
+
+    private TourOptimizer(DistanceMatrix matrix, int startDepot, int endDepot, int[] pickups, int[] dropoffs, int[] handles) {
+        if (matrix.rows() != matrix.cols()) {
+            throw new IllegalArgumentException("Expected a square matrix, got " + matrix.rows() + " x " + matrix.cols());
+        }
+        if (pickups.length != dropoffs.length) {
+            throw new IllegalArgumentException("Got " + pickups.length + " pickups for " + dropoffs.length + " dropoffs");
+        }
+        this.nodeCount = 2 + 2 * pickups.length;
+        // Node 0 is the start, node 1 the end, and trip i is pickup node 2 + 2i and dropoff node 3 + 2i
+        this.stops = new int[nodeCount];
+        stops[0] = startDepot;
+        stops[1] = endDepot;
+        for (int i = 0; i < pickups.length; i++) {
+            stops[2 + 2 * i] = pickups[i];
+            stops[3 + 2 * i] = dropoffs[i];
+        }
+        for (int stop : stops) {
+            if (stop < 0 || stop >= matrix.rows()) {
+                throw new IllegalArgumentException("Stop " + stop + " is outside 0.." + (matrix.rows() - 1));
+            }
+        }
+        this.handles = handles;
+
+        this.cost = new long[nodeCount * nodeCount];
+        long maxLeg = 0;
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                long d = matrix.get(stops[a], stops[b]);
+                if (d < 0) {
+                    throw new IllegalArgumentException("Negative distance " + d + " from stop " + stops[a] + " to " + stops[b]);
+                }
+                if (d != DijkstraEngine.UNREACHABLE) {
+                    maxLeg = Math.max(maxLeg, d);
+                }
+                cost[a * nodeCount + b] = d;
+            }
+        }
+        // A single unreachable leg costs more than any tour made of reachable ones
+        if (maxLeg > Long.MAX_VALUE / 4 / nodeCount / nodeCount) {
+            throw new IllegalArgumentException("Distances up to " + maxLeg + " are too large to add up over " + nodeCount + " stops");
+        }
+        this.penalty = maxLeg * nodeCount + 1;
+        for (int i = 0; i < cost.length; i++) {
+            if (cost[i] == DijkstraEngine.UNREACHABLE) {
+                cost[i] = penalty;
+            }
+        }
+    }
+
+    // Method to plan a tour over graph vertices: the distances between the garages, pickups and
+    // dropoffs are computed by the engine first, and the tour reports vertex handles
+    public static TourOptimizer forVertices(ManyToManyEngine engine, int startGarage, int endGarage, int[] pickups, int[] dropoffs) {
+        if (pickups.length != dropoffs.length) {
+            throw new IllegalArgumentException("Got " + pickups.length + " pickups for " + dropoffs.length + " dropoffs");
+        }
+        int[] handles = new int[2 + 2 * pickups.length];
+        handles[0] = startGarage;
+        handles[1] = endGarage;
+        for (int i = 0; i < pickups.length; i++) {
+            handles[2 + 2 * i] = pickups[i];
+            handles[3 + 2 * i] = dropoffs[i];
+        }
+        DistanceMatrix matrix = engine.matrix(handles, handles);
+        int[] pickupStops = new int[pickups.length];
+        int[] dropoffStops = new int[dropoffs.length];
+        for (int i = 0; i < pickups.length; i++) {
+            pickupStops[i] = 2 + 2 * i;
+            dropoffStops[i] = 3 + 2 * i;
+        }
+        return new TourOptimizer(matrix, 0, 1, pickupStops, dropoffStops, handles);
+    }
+
+    // Seed of the random trip orders and perturbations; with one worker the search is repeatable
+    // up to where the time budget cuts it off
+    public TourOptimizer setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int tripCount() {
+        return (nodeCount - 2) / 2;
+    }
+
+    // Method to search for the given time using every core
+    public Tour optimize(long budgetMillis) {
+        return optimize(budgetMillis, ForkJoinPool.commonPool());
+    }
+
+    // Method to search for the given time with one worker per thread of the pool and return the best
+    // tour found. The construction always finishes, even if it takes longer than the budget.
+    public Tour optimize(long budgetMillis, ForkJoinPool pool) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative, got " + budgetMillis);
+        }
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        int workers = Math.max(1, pool.getParallelism());
+        Shared shared = new Shared();
+        pool.submit(() -> IntStream.range(0, workers).parallel().forEach(w -> new Worker(w, shared).run(deadline))).join();
+        return shared.toTour();
+    }
+
+    // Method to get the length of a tour given as nodes, counting unreachable legs as the penalty
+    private long costOf(int[] route, int length) {
+        long total = 0;
+        for (int i = 0; i + 1 < length; i++) {
+            total += cost[route[i] * nodeCount + route[i + 1]];
+        }
+        return total;
+    }
+
+    // Best tour over all workers
+    private class Shared {
+        private int[] bestRoute;
+        private long bestCost = Long.MAX_VALUE;
+
+        synchronized boolean offer(int[] candidate, long candidateCost) {
+            if (candidateCost >= bestCost) {
+                return false;
+            }
+            bestRoute = candidate.clone();
+            bestCost = candidateCost;
+            return true;
+        }
+
+        synchronized long copyInto(int[] target) {
+            System.arraycopy(bestRoute, 0, target, 0, nodeCount);
+            return bestCost;
+        }
+
+        synchronized Tour toTour() {
+            int[] tourStops = new int[nodeCount];
+            int[] tourHandles = new int[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                tourStops[i] = stops[bestRoute[i]];
+                tourHandles[i] = handles != null ? handles[bestRoute[i]] : tourStops[i];
+            }
+            return new Tour(tourStops, tourHandles, bestCost < penalty ? bestCost : DijkstraEngine.UNREACHABLE);
+        }
+    }
+
+    // Search state of one worker: the current tour as a node sequence with the position of every node
+    private class Worker {
+        private final int index;
+        private final SplittableRandom random;
+        private final Shared shared;
+        private int[] route = new int[nodeCount];
+        private int[] work = new int[nodeCount];
+        private final int[] saved = new int[nodeCount];
+        private final int[] accepted = new int[nodeCount];
+        private final int[] pos = new int[nodeCount];
+        private final long[] forward = new long[nodeCount];
+        private final long[] backward = new long[nodeCount];
+        private final int[] trips = new int[tripCount()];
+        private int length;
+        private long total;
+        // Gaps chosen by bestInsertion: the node goes after route[gap]
+        private int pickupGap;
+        private int dropoffGap;
+
+        Worker(int index, Shared shared) {
+            this.index = index;
+            this.random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+            this.shared = shared;
+            for (int i = 0; i < trips.length; i++) {
+                trips[i] = i;
+            }
+        }
+
+        void run(long deadline) {
+            // The first worker inserts the trips in input order, the others in random orders
+            if (index > 0) {
+                shuffle(trips);
+            }
+            length = 2;
+            route[0] = 0;
+            route[1] = 1;
+            total = cost[1];
+            for (int trip : trips) {
+                insertBest(trip);
+            }
+            localSearch(deadline);
+            shared.offer(route, total);
+
+            int stalled = 0;
+            while (System.nanoTime() < deadline && trips.length > 0) {
+                System.arraycopy(route, 0, accepted, 0, nodeCount);
+                long acceptedTotal = total;
+                ruinAndRecreate();
+                localSearch(deadline);
+                if (total < acceptedTotal) {
+                    stalled = shared.offer(route, total) ? 0 : stalled + 1;
+                } else {
+                    // Go back to the tour before the perturbation
+                    System.arraycopy(accepted, 0, route, 0, nodeCount);
+                    total = acceptedTotal;
+                    updatePositions();
+                    stalled++;
+                }
+                if (stalled >= STALL_LIMIT) {
+                    total = shared.copyInto(route);
+                    updatePositions();
+                    stalled = 0;
+                }
+            }
+        }
+
+        private void localSearch(long deadline) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = twoOpt(deadline);
+                improved |= orOpt(deadline);
+                improved |= relocate(deadline);
+            }
+        }
+
+        private long c(int from, int to) {
+            return cost[from * nodeCount + to];
+        }
+
+        // Method to reverse the stretch route[i..j] wherever that shortens the tour
+        private boolean twoOpt(long deadline) {
+            boolean improved = false;
+            updatePrefixSums();
+            for (int i = 1; i < length - 2 && System.nanoTime() < deadline; i++) {
+                for (int j = i + 1; j < length - 1; j++) {
+                    int node = route[j];
+                    // A dropoff whose pickup is inside the stretch would come first after the reversal
+                    if (node >= 2 && (node & 1) == 1 && pos[node ^ 1] >= i) {
+                        break;
+                    }
+                    long before = c(route[i - 1], route[i]) + forward[j] - forward[i] + c(route[j], route[j + 1]);
+                    long after = c(route[i - 1], route[j]) + backward[j] - backward[i] + c(route[i], route[j + 1]);
+                    if (after < before) {
+                        reverse(i, j);
+                        total += after - before;
+                        updatePrefixSums();
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        // Method to move stretches of one to three stops to a better place, in the same direction
+        private boolean orOpt(long deadline) {
+            boolean improved = false;
+            for (int size = 1; size <= 3; size++) {
+                for (int i = 1; i + size < length && System.nanoTime() < deadline; i++) {
+                    int last = i + size - 1;
+                    // The stretch may move back to just after its latest outside pickup, and forward
+                    // to just before its earliest outside dropoff
+                    int lowestGap = 0;
+                    int highestGap = length - 2;
+                    for (int k = i; k <= last; k++) {
+                        int node = route[k];
+                        int partnerPos = pos[node ^ 1];
+                        if ((node & 1) == 1 && partnerPos < i) {
+                            lowestGap = Math.max(lowestGap, partnerPos);
+                        } else if ((node & 1) == 0 && partnerPos > last) {
+                            highestGap = Math.min(highestGap, partnerPos - 1);
+                        }
+                    }
+                    long removed = c(route[i - 1], route[i]) + c(route[last], route[last + 1]) - c(route[i - 1], route[last + 1]);
+                    long best = 0;
+                    int bestGap = -1;
+                    for (int g = lowestGap; g <= highestGap; g++) {
+                        if (g >= i - 1 && g <= last) {
+                            continue;
+                        }
+                        long delta = c(route[g], route[i]) + c(route[last], route[g + 1]) - c(route[g], route[g + 1]) - removed;
+                        if (delta < best) {
+                            best = delta;
+                            bestGap = g;
+                        }
+                    }
+                    if (bestGap >= 0) {
+                        moveStretch(i, last, bestGap);
+                        total += best;
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        // Method to take every trip out in turn and insert it again at its best places
+        private boolean relocate(long deadline) {
+            boolean improved = false;
+            shuffle(trips);
+            for (int trip : trips) {
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                long before = total;
+                System.arraycopy(route, 0, saved, 0, length);
+                int savedLength = length;
+                removeTrip(trip);
+                insertBest(trip);
+                if (total < before) {
+                    improved = true;
+                } else {
+                    System.arraycopy(saved, 0, route, 0, savedLength);
+                    length = savedLength;
+                    total = before;
+                    updatePositions();
+                }
+            }
+            return improved;
+        }
+
+        // Method to take a few random trips out and insert them again in random order
+        private void ruinAndRecreate() {
+            int count = 1 + random.nextInt(Math.min(MAX_RUIN_TRIPS, trips.length));
+            shuffle(trips);
+            for (int i = 0; i < count; i++) {
+                removeTrip(trips[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                insertBest(trips[i]);
+            }
+        }
+
+        // Method to find the cheapest gaps for the pickup and dropoff of a trip in the current tour,
+        // pickup first; returns the added length
+        private long bestInsertion(int pickup, int dropoff) {
+            long best = Long.MAX_VALUE;
+            long bestPickupDelta = Long.MAX_VALUE;
+            int bestPickupSoFar = -1;
+            for (int g = 0; g < length - 1; g++) {
+                int a = route[g];
+                int b = route[g + 1];
+                long edge = c(a, b);
+                // Both in the same gap
+                long together = c(a, pickup) + c(pickup, dropoff) + c(dropoff, b) - edge;
+                if (together < best) {
+                    best = together;
+                    pickupGap = g;
+                    dropoffGap = g;
+                }
+                // The dropoff here after the cheapest pickup in an earlier gap
+                if (bestPickupSoFar >= 0) {
+                    long apart = bestPickupDelta + c(a, dropoff) + c(dropoff, b) - edge;
+                    if (apart < best) {
+                        best = apart;
+                        pickupGap = bestPickupSoFar;
+                        dropoffGap = g;
+                    }
+                }
+                long pickupDelta = c(a, pickup) + c(pickup, b) - edge;
+                if (pickupDelta < bestPickupDelta) {
+                    bestPickupDelta = pickupDelta;
+                    bestPickupSoFar = g;
+                }
+            }
+            return best;
+        }
+
+        private void insertBest(int trip) {
+            int pickup = 2 + 2 * trip;
+            int dropoff = pickup + 1;
+            total += bestInsertion(pickup, dropoff);
+            int n = 0;
+            for (int k = 0; k < length; k++) {
+                work[n++] = route[k];
+                if (k == pickupGap) {
+                    work[n++] = pickup;
+                }
+                if (k == dropoffGap) {
+                    work[n++] = dropoff;
+                }
+            }
+            swapWork(n);
+        }
+
+        private void removeTrip(int trip) {
+            int pickup = 2 + 2 * trip;
+            int dropoff = pickup + 1;
+            int n = 0;
+            for (int k = 0; k < length; k++) {
+                if (route[k] != pickup && route[k] != dropoff) {
+                    work[n++] = route[k];
+                }
+            }
+            swapWork(n);
+            total = costOf(route, length);
+        }
+
+        // Method to put route[i..last] after route[gap], where the gap lies outside the stretch
+        private void moveStretch(int i, int last, int gap) {
+            int n = 0;
+            if (gap < i) {
+                n = copy(0, gap, n);
+                n = copy(i, last, n);
+                n = copy(gap + 1, i - 1, n);
+                n = copy(last + 1, length - 1, n);
+            } else {
+                n = copy(0, i - 1, n);
+                n = copy(last + 1, gap, n);
+                n = copy(i, last, n);
+                n = copy(gap + 1, length - 1, n);
+            }
+            swapWork(n);
+        }
+
+        private int copy(int from, int to, int n) {
+            for (int k = from; k <= to; k++) {
+                work[n++] = route[k];
+            }
+            return n;
+        }
+
+        private void swapWork(int newLength) {
+            int[] old = route;
+            route = work;
+            work = old;
+            length = newLength;
+            updatePositions();
+        }
+
+        private void reverse(int i, int j) {
+            for (; i < j; i++, j--) {
+                int node = route[i];
+                route[i] = route[j];
+                route[j] = node;
+            }
+            updatePositions();
+        }
+
+        private void updatePositions() {
+            for (int k = 0; k < length; k++) {
+                pos[route[k]] = k;
+            }
+        }
+
+        // Method to sum the legs up to every position, along the tour and against it
+        private void updatePrefixSums() {
+            forward[0] = 0;
+            backward[0] = 0;
+            for (int k = 1; k < length; k++) {
+                forward[k] = forward[k - 1] + c(route[k - 1], route[k]);
+                backward[k] = backward[k - 1] + c(route[k], route[k - 1]);
+            }
+        }
+
+        private void shuffle(int[] values) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        }
+    }
+
+    // A planned tour: the stops in visiting order from the start depot to the end depot
+    public static final class Tour {
+        private final int[] stops;
+        private final int[] vertices;
+        private final long length;
+
+        Tour(int[] stops, int[] vertices, long length) {
+            this.stops = stops;
+            this.vertices = vertices;
+            this.length = length;
+        }
+
+        // Matrix indices of the stops in visiting order
+        public int[] getStops() {
+            return stops.clone();
+        }
+
+        // Vertex handles in visiting order for a tour planned with forVertices, otherwise the matrix indices
+        public int[] getVertices() {
+            return vertices.clone();
+        }
+
+        // Total distance of the tour, or DijkstraEngine.UNREACHABLE if some leg cannot be driven
+        public long getLength() {
+            return length;
+        }
+
+        public boolean isFeasible() {
+            return length != DijkstraEngine.UNREACHABLE;
+        }
+
+        @Override
+        public String toString() {
+            return "Tour(" + stops.length + " stops, length " + (isFeasible() ? String.valueOf(length) : "unreachable") + ")";
+        }
+    }
+}
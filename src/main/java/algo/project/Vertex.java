@@ -1,5 +1,7 @@
 package algo.project;
 
+import java.util.Objects;
+
 public class Vertex {
     private String id;
     private String name;
@@ -23,6 +25,23 @@ public class Vertex {
         return type;
     }
 
+    // Vertices are equal when their IDs are, so two loaders creating the same ID agree
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Vertex)) {
+            return false;
+        }
+        return Objects.equals(id, ((Vertex) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return "Vertex(" + id + ", " + name + ", " + type + ")";
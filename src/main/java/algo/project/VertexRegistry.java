@@ -0,0 +1,161 @@
+package algo.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Interns vertex IDs to dense int handles 0..size-1.
+// IDs are found through an open-addressing hash table of handles, so lookups are O(1) in both
+// directions without boxing. The only per-vertex storage is the Vertex object of each handle,
+// which is created once, so every loader that interns the same ID gets the same object; the ID,
+// name and type are read from it rather than kept a second time.
+// A registry is not thread-safe while it is being filled; once filled, it can be read from any
+// number of threads.
+public class VertexRegistry {
+
+    private Vertex[] vertices;
+    private int size;
+    private int[] table; // handle + 1 of the vertex stored in each slot, 0 for an empty slot
+
+    public VertexRegistry() {
+        this(16);
+    }
+
+    public VertexRegistry(int capacity) {
+        int initial = Math.max(capacity, 4);
+        vertices = new Vertex[initial];
+        table = new int[Integer.highestOneBit(initial * 2 - 1) << 1];
+    }
+
+    // Method to register the vertices of an array under handles equal to their positions.
+    // Duplicate IDs still get their own handle, but lookups by ID find the first one.
+    public static VertexRegistry of(Vertex[] vertices) {
+        VertexRegistry registry = new VertexRegistry(vertices.length);
+        for (Vertex vertex : vertices) {
+            registry.append(vertex);
+        }
+        return registry;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Method to get the handle of an ID, registering a new vertex if the ID is unknown
+    public int intern(String id, String name, String type) {
+        int handle = indexOf(id);
+        return handle >= 0 ? handle : append(new Vertex(id, name, type));
+    }
+
+    // Method to get the handle of the vertex's ID, registering the vertex itself if the ID is unknown
+    public int intern(Vertex vertex) {
+        int handle = indexOf(vertex.getId());
+        return handle >= 0 ? handle : append(vertex);
+    }
+
+    // Method to get the handle of an ID, or -1 if it is not registered
+    public int indexOf(String id) {
+        int mask = table.length - 1;
+        for (int slot = slotOf(id, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            int handle = table[slot] - 1;
+            if (vertices[handle].getId().equals(id)) {
+                return handle;
+            }
+        }
+        return -1;
+    }
+
+    // Method to get the handle of a vertex by its ID, or -1 if it is not registered
+    public int indexOf(Vertex vertex) {
+        return indexOf(vertex.getId());
+    }
+
+    // The Vertex object of a handle; the same object is returned every time
+    public Vertex vertexAt(int handle) {
+        checkHandle(handle);
+        return vertices[handle];
+    }
+
+    public String getId(int handle) {
+        checkHandle(handle);
+        return vertices[handle].getId();
+    }
+
+    public String getName(int handle) {
+        checkHandle(handle);
+        return vertices[handle].getName();
+    }
+
+    public String getType(int handle) {
+        checkHandle(handle);
+        return vertices[handle].getType();
+    }
+
+    // Method to get the VertexType of a handle, or null for a type outside the enum
+    public VertexType getVertexType(int handle) {
+        checkHandle(handle);
+        return VertexType.fromLabel(vertices[handle].getType());
+    }
+
+    // Method to get the handles of all vertices with the given type string, in handle order
+    public int[] handlesOfType(String type) {
+        IntList handles = new IntList();
+        for (int v = 0; v < size; v++) {
+            if (Objects.equals(vertices[v].getType(), type)) {
+                handles.add(v);
+            }
+        }
+        return handles.toArray();
+    }
+
+    // Method to get all vertices in handle order
+    public List<Vertex> getVertices() {
+        return new ArrayList<>(Arrays.asList(vertices).subList(0, size));
+    }
+
+    // Method to add a vertex under the next handle; the ID table keeps the first handle of an ID
+    private int append(Vertex vertex) {
+        if (size == vertices.length) {
+            vertices = Arrays.copyOf(vertices, size + (size >> 1));
+        }
+        int handle = size++;
+        vertices[handle] = vertex;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else if (indexOf(vertex.getId()) < 0) {
+            insert(handle);
+        }
+        return handle;
+    }
+
+    private void insert(int handle) {
+        int mask = table.length - 1;
+        int slot = slotOf(vertices[handle].getId(), mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = handle + 1;
+    }
+
+    // Method to rebuild the ID table with a new capacity, keeping the first handle of each ID
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int handle = 0; handle < size; handle++) {
+            if (indexOf(vertices[handle].getId()) < 0) {
+                insert(handle);
+            }
+        }
+    }
+
+    private static int slotOf(String id, int mask) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("Vertex handle " + handle + " out of range for " + size + " vertices");
+        }
+    }
+}
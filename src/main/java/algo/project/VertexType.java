@@ -0,0 +1,29 @@
+package algo.project;
+
+// The vertex types created by the loaders
+public enum VertexType {
+    PICKUP("Pickup"),
+    DROPOFF("Dropoff"),
+    GARAGE("Garage");
+
+    private final String label;
+
+    VertexType(String label) {
+        this.label = label;
+    }
+
+    // The type string used by Vertex.getType()
+    public String getLabel() {
+        return label;
+    }
+
+    // Method to find the type with the given label, or null for other types
+    public static VertexType fromLabel(String label) {
+        for (VertexType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}